@@ -0,0 +1,172 @@
+package org.team4u.config.benchmark;
+
+import org.team4u.config.AbstractConfigLoader;
+import org.team4u.config.ConfigurationProperties;
+import org.team4u.config.DefaultSystemConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试配置数据
+ *
+ * @author Jay.Wu
+ */
+public class BenchmarkConfigs {
+
+    public static final String BENCH_TYPE = "bench";
+
+    /**
+     * 创建指定数量的配置，前10条为BenchConfig的配置，其余为其他配置组的填充配置
+     */
+    public static List<DefaultSystemConfig> createConfigs(int size) {
+        return createConfigs(size, 0, "");
+    }
+
+    /**
+     * 创建指定数量的配置，并修改部分填充配置的值
+     *
+     * @param modifiedEvery 每隔多少条填充配置修改一条，0则不修改
+     * @param valueSuffix   被修改配置的值后缀
+     */
+    public static List<DefaultSystemConfig> createConfigs(int size, int modifiedEvery, String valueSuffix) {
+        List<DefaultSystemConfig> configs = new ArrayList<DefaultSystemConfig>(size);
+
+        configs.add(newConfig(BENCH_TYPE, "a", "1"));
+        configs.add(newConfig(BENCH_TYPE, "b", "b"));
+        configs.add(newConfig(BENCH_TYPE, "c", "100000"));
+        configs.add(newConfig(BENCH_TYPE, "d", "true"));
+        configs.add(newConfig(BENCH_TYPE, "e", "1,2,3,4,5"));
+        configs.add(newConfig(BENCH_TYPE, "f", "5, 4, 3, 2, 1"));
+        configs.add(newConfig(BENCH_TYPE, "g", "g"));
+        configs.add(newConfig(BENCH_TYPE, "h", "1.5"));
+        configs.add(newConfig(BENCH_TYPE, "i", "{'name':'fjay','age':1}"));
+        configs.add(newConfig(BENCH_TYPE, "j", "j"));
+
+        for (int i = configs.size(); i < size; i++) {
+            String value = "value" + i;
+            if (modifiedEvery > 0 && i % modifiedEvery == 0) {
+                value += valueSuffix;
+            }
+
+            configs.add(newConfig("filler" + (i / 50), "key" + i, value));
+        }
+
+        return configs;
+    }
+
+    private static DefaultSystemConfig newConfig(String type, String name, String value) {
+        return new DefaultSystemConfig()
+                .setType(type)
+                .setName(name)
+                .setValue(value)
+                .setDescription("")
+                .setEnabled(true);
+    }
+
+    /**
+     * 内存配置加载器
+     */
+    public static class MemoryConfigLoader extends AbstractConfigLoader<DefaultSystemConfig> {
+
+        private volatile List<DefaultSystemConfig> configs;
+
+        public MemoryConfigLoader(List<DefaultSystemConfig> configs) {
+            this.configs = configs;
+        }
+
+        @Override
+        public List<DefaultSystemConfig> load() {
+            return configs;
+        }
+
+        public MemoryConfigLoader setConfigs(List<DefaultSystemConfig> configs) {
+            this.configs = configs;
+            return this;
+        }
+
+        @Override
+        public void close() {
+            // Ignore
+        }
+    }
+
+    @ConfigurationProperties(BENCH_TYPE)
+    public static class BenchConfig {
+
+        private Integer a;
+        private String b;
+        private Long c;
+        private Boolean d;
+        private Integer[] e;
+        private List<Integer> f;
+        private String g;
+        private Double h;
+        private Person i;
+        private String j;
+
+        public Integer getA() {
+            return a;
+        }
+
+        public String getB() {
+            return b;
+        }
+
+        public Long getC() {
+            return c;
+        }
+
+        public Boolean getD() {
+            return d;
+        }
+
+        public Integer[] getE() {
+            return e;
+        }
+
+        public List<Integer> getF() {
+            return f;
+        }
+
+        public String getG() {
+            return g;
+        }
+
+        public Double getH() {
+            return h;
+        }
+
+        public Person getI() {
+            return i;
+        }
+
+        public String getJ() {
+            return j;
+        }
+    }
+
+    public static class Person {
+
+        private String name;
+        private Integer age;
+
+        public String getName() {
+            return name;
+        }
+
+        public Person setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public Person setAge(Integer age) {
+            this.age = age;
+            return this;
+        }
+    }
+}
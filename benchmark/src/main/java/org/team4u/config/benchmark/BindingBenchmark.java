@@ -0,0 +1,39 @@
+package org.team4u.config.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.team4u.config.AccessorType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AbstractConfigLoader.to()绑定性能
+ *
+ * @author Jay.Wu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    @Param({"REFLECTION", "METHOD_HANDLE"})
+    private AccessorType accessorType;
+
+    private BenchmarkConfigs.MemoryConfigLoader loader;
+
+    @Setup
+    public void setup() {
+        loader = new BenchmarkConfigs.MemoryConfigLoader(BenchmarkConfigs.createConfigs(size));
+        loader.setAccessorType(accessorType);
+    }
+
+    @Benchmark
+    public BenchmarkConfigs.BenchConfig to() {
+        return loader.to(BenchmarkConfigs.BenchConfig.class);
+    }
+}
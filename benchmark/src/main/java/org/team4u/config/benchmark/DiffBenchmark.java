@@ -0,0 +1,40 @@
+package org.team4u.config.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.team4u.config.ConfigChangeSet;
+import org.team4u.config.ConfigDiffer;
+import org.team4u.config.ConfigSnapshot;
+import org.team4u.config.DefaultSystemConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConfigDiffer.diff()比较性能，1%的配置发生修改
+ *
+ * @author Jay.Wu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private ConfigSnapshot<DefaultSystemConfig> oldSnapshot;
+    private ConfigSnapshot<DefaultSystemConfig> newSnapshot;
+
+    @Setup
+    public void setup() {
+        oldSnapshot = new ConfigSnapshot<DefaultSystemConfig>(BenchmarkConfigs.createConfigs(size));
+        newSnapshot = new ConfigSnapshot<DefaultSystemConfig>(BenchmarkConfigs.createConfigs(size, 100, "_new"));
+    }
+
+    @Benchmark
+    public ConfigChangeSet<DefaultSystemConfig> diff() {
+        return ConfigDiffer.diff(oldSnapshot, newSnapshot);
+    }
+}
@@ -0,0 +1,58 @@
+package org.team4u.config.benchmark;
+
+import cn.hutool.core.io.FileUtil;
+import org.openjdk.jmh.annotations.*;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.props.PropsConfigLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PropsConfigLoader.load()大文件加载性能
+ *
+ * @author Jay.Wu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropsLoadBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int size;
+
+    private File propsFile;
+    private PropsConfigLoader loader;
+
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (DefaultSystemConfig config : BenchmarkConfigs.createConfigs(size)) {
+            content.append(config.getType())
+                    .append('.')
+                    .append(config.getName())
+                    .append('=')
+                    .append(config.getValue())
+                    .append('\n');
+        }
+
+        propsFile = File.createTempFile("simple-config-benchmark", ".properties");
+        FileUtil.writeUtf8String(content.toString(), propsFile);
+        loader = new PropsConfigLoader(propsFile.getAbsolutePath());
+    }
+
+    @TearDown
+    public void tearDown() {
+        FileUtil.del(propsFile);
+    }
+
+    @Benchmark
+    public List<DefaultSystemConfig> load() {
+        return loader.load();
+    }
+}
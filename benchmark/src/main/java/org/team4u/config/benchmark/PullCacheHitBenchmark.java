@@ -0,0 +1,61 @@
+package org.team4u.config.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.PullCacheConfigLoader;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PullCacheConfigLoader.to()缓存命中及单个配置读取性能，多线程并发读取
+ * <p>
+ * 使用-prof gc运行可验证to()缓存命中无内存分配（gc.alloc.rate.norm应为0）
+ *
+ * @author Jay.Wu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class PullCacheHitBenchmark {
+
+    private PullCacheConfigLoader<DefaultSystemConfig> loader;
+
+    @Setup
+    public void setup() {
+        loader = new PullCacheConfigLoader<DefaultSystemConfig>(
+                new BenchmarkConfigs.MemoryConfigLoader(BenchmarkConfigs.createConfigs(1000)), 0);
+        loader.to(BenchmarkConfigs.BenchConfig.class);
+        loader.to(BenchmarkConfigs.BenchConfig.class, BenchmarkConfigs.BENCH_TYPE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        loader.close();
+    }
+
+    @Benchmark
+    public BenchmarkConfigs.BenchConfig to() {
+        return loader.to(BenchmarkConfigs.BenchConfig.class);
+    }
+
+    @Benchmark
+    public BenchmarkConfigs.BenchConfig toWithPrefix() {
+        return loader.to(BenchmarkConfigs.BenchConfig.class, BenchmarkConfigs.BENCH_TYPE);
+    }
+
+    @Benchmark
+    public int getInt() {
+        return loader.getInt(BenchmarkConfigs.BENCH_TYPE, "a", 0);
+    }
+
+    @Benchmark
+    public List<Integer> getList() {
+        return loader.getList(BenchmarkConfigs.BENCH_TYPE, "e", Integer.class);
+    }
+}
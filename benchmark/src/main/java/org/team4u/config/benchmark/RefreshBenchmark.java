@@ -0,0 +1,83 @@
+package org.team4u.config.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.PullCacheConfigLoader;
+import org.team4u.config.Watcher;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PullCacheConfigLoader完整刷新周期（加载、比较、更新配置对象）性能
+ *
+ * @author Jay.Wu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    /**
+     * 每次刷新配置是否发生变化
+     */
+    @Param({"false", "true"})
+    private boolean changed;
+
+    private List<DefaultSystemConfig> configs;
+    private List<DefaultSystemConfig> modifiedConfigs;
+    private BenchmarkConfigs.MemoryConfigLoader delegate;
+    private PullCacheConfigLoader<DefaultSystemConfig> loader;
+    private boolean modified;
+
+    @Setup
+    public void setup() {
+        configs = BenchmarkConfigs.createConfigs(size);
+        modifiedConfigs = BenchmarkConfigs.createConfigs(size, 100, "_new");
+        delegate = new BenchmarkConfigs.MemoryConfigLoader(configs);
+        loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0, new NoopWatcher());
+        loader.to(BenchmarkConfigs.BenchConfig.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        loader.close();
+    }
+
+    @Benchmark
+    public void refresh() {
+        if (changed) {
+            modified = !modified;
+            delegate.setConfigs(modified ? modifiedConfigs : configs);
+        }
+
+        loader.refresh();
+    }
+
+    private static class NoopWatcher implements Watcher<DefaultSystemConfig> {
+
+        @Override
+        public void onCreate(DefaultSystemConfig newConfig) {
+        }
+
+        @Override
+        public void onModify(DefaultSystemConfig newConfig) {
+        }
+
+        @Override
+        public void onDelete(DefaultSystemConfig oldConfig) {
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
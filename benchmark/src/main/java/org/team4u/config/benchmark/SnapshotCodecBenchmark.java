@@ -0,0 +1,83 @@
+package org.team4u.config.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.team4u.config.ConfigSnapshot;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.SystemConfig;
+import org.team4u.config.snapshot.SnapshotCodec;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置快照二进制编解码性能，以fastjson为对照
+ *
+ * @author Jay.Wu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotCodecBenchmark {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private List<DefaultSystemConfig> configs;
+    private byte[] data;
+    private ByteBuffer directData;
+    private String json;
+
+    @Setup
+    public void setup() {
+        configs = BenchmarkConfigs.createConfigs(size);
+        data = SnapshotCodec.encode(configs);
+        json = JSON.toJSONString(configs);
+
+        // 模拟内存映射文件
+        directData = ByteBuffer.allocateDirect(data.length);
+        directData.put(data);
+        directData.flip();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return SnapshotCodec.encode(configs);
+    }
+
+    @Benchmark
+    public List<DefaultSystemConfig> decode() {
+        return SnapshotCodec.decode(data);
+    }
+
+    @Benchmark
+    public ConfigSnapshot<SystemConfig> openSnapshot() {
+        return SnapshotCodec.openSnapshot(directData);
+    }
+
+    /**
+     * 仅读取配置组与配置名称，不解码配置值
+     */
+    @Benchmark
+    public void openAndReadNames(Blackhole blackhole) {
+        for (SystemConfig config : SnapshotCodec.open(directData)) {
+            blackhole.consume(config.getType());
+            blackhole.consume(config.getName());
+        }
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        return JSON.toJSONString(configs);
+    }
+
+    @Benchmark
+    public List<DefaultSystemConfig> decodeJson() {
+        return JSON.parseArray(json, DefaultSystemConfig.class);
+    }
+}
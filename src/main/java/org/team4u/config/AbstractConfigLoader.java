@@ -1,20 +1,18 @@
 package org.team4u.config;
 
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.Assert;
-import cn.hutool.core.lang.Filter;
 import cn.hutool.core.util.ArrayUtil;
-import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.ReflectUtil;
-import cn.hutool.core.util.StrUtil;
-import com.alibaba.fastjson.JSON;
-import org.team4u.kit.core.util.FieldUtil;
+import cn.hutool.log.Log;
+import cn.hutool.log.LogFactory;
+import org.team4u.kit.core.log.LogMessage;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
@@ -22,7 +20,39 @@ import java.util.List;
  *
  * @author Jay.Wu
  */
-public abstract class AbstractConfigLoader<C extends SystemConfig> implements ConfigLoader<C> {
+public abstract class AbstractConfigLoader<C extends SystemConfig> implements ConfigLoader<C>, ConfigLookup {
+
+    /**
+     * 转换结果为null时的缓存值
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * 配置类注解元数据缓存，每个配置类仅解析一次
+     */
+    private static final ClassValue<AnnotationMetadata> ANNOTATION_METADATA = new ClassValue<AnnotationMetadata>() {
+        @Override
+        protected AnnotationMetadata computeValue(Class<?> type) {
+            return new AnnotationMetadata(type);
+        }
+    };
+
+    private final Log log = LogFactory.get();
+
+    /**
+     * 绑定计划缓存
+     */
+    private final ConcurrentMap<BindingPlan.Key, BindingPlan<?>> bindingPlans =
+            new ConcurrentHashMap<BindingPlan.Key, BindingPlan<?>>();
+    /**
+     * 接口配置计划缓存
+     */
+    private final ConcurrentMap<BindingPlan.Key, LazyConfigProxy.Plan> lazyPlans =
+            new ConcurrentHashMap<BindingPlan.Key, LazyConfigProxy.Plan>();
+    /**
+     * 配置类字段访问方式
+     */
+    private volatile AccessorType accessorType = AccessorType.REFLECTION;
 
     @Override
     public <T> T to(Class<T> toType) {
@@ -39,72 +69,213 @@ public abstract class AbstractConfigLoader<C extends SystemConfig> implements Co
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public <T> T to(Class<T> toType, final String prefix, String[] ignoreFields) {
-        // 获取开启的且类型符合的配置集合
-        Collection<? extends SystemConfig> configs = CollUtil.filterNew(load(), new Filter() {
-            @Override
-            public boolean accept(Object o) {
-                SystemConfig systemConfig = (SystemConfig) o;
-                return systemConfig.getEnabled() &&
-                        StrUtil.equalsIgnoreCase(systemConfig.getType(), prefix);
-            }
-        });
+    public <T> T to(Class<T> toType, String prefix, String[] ignoreFields) {
+        return to(loadSnapshot(prefix), toType, prefix, ignoreFields);
+    }
+
+    /**
+     * 使用指定配置快照转换为配置对象
+     * <p>
+     * 配置类为接口时返回延迟绑定的配置对象，调用方法时才转换配置值，见{@link LazyConfigProxy}
+     */
+    protected <T> T to(ConfigSnapshot<? extends SystemConfig> snapshot,
+                       Class<T> toType,
+                       String prefix,
+                       String[] ignoreFields) {
+        if (toType.isInterface()) {
+            return newLazyProxy(toType, prefix, ignoreFields, LazyConfigProxy.fixed(snapshot));
+        }
 
-        T toConfigObject = ReflectUtil.newInstance(toType);
+        BindingPlan<T> plan = getBindingPlan(toType, prefix, ignoreFields);
+        ConversionCache conversionCache = getConversionCache();
+        T toConfigObject = plan.newInstance();
 
-        for (final Field field : ReflectUtil.getFields(toType)) {
-            // 跳过忽略字段
-            if (ArrayUtil.contains(ignoreFields, field.getName())) {
+        for (BindingPlan.FieldBinding binding : plan.getBindings()) {
+            // 确保只有一个满足
+            SystemConfig config = mustUnique(snapshot, binding.getLookupKey());
+            if (config == null) {
                 continue;
             }
 
-            // 获取满足该字段的所有配置集合
-            Collection<? extends SystemConfig> configsForField = CollUtil.filterNew(configs, new Filter() {
-                @Override
-                public boolean accept(Object o) {
-                    SystemConfig systemConfig = (SystemConfig) o;
-                    return StrUtil.equalsIgnoreCase(field.getName(), systemConfig.getName());
-                }
-            });
+            binding.bind(toConfigObject, config.getValue(), conversionCache);
+        }
 
-            if (configsForField.isEmpty()) {
-                continue;
+        return toConfigObject;
+    }
+
+    /**
+     * 创建延迟绑定的接口配置对象
+     *
+     * @param snapshotSource 配置快照来源，每次调用方法时读取
+     */
+    <T> T newLazyProxy(Class<T> toType,
+                       String prefix,
+                       String[] ignoreFields,
+                       LazyConfigProxy.SnapshotSource snapshotSource) {
+        BindingPlan.Key key = new BindingPlan.Key(toType, prefix, ignoreFields);
+        LazyConfigProxy.Plan plan = lazyPlans.get(key);
+        if (plan == null) {
+            plan = LazyConfigProxy.Plan.compile(toType, prefix, ignoreFields);
+            LazyConfigProxy.Plan existingPlan = lazyPlans.putIfAbsent(key, plan);
+            if (existingPlan != null) {
+                plan = existingPlan;
             }
+        }
 
-            // 确保只有一个满足
-            SystemConfig config = mustUnique(configsForField);
-
-            // 简单类型直接注入
-            if (ClassUtil.isSimpleTypeOrArray(field.getType())) {
-                ReflectUtil.setFieldValue(toConfigObject, field,
-                        Convert.convert(field.getType(), config.getValue()));
-            } else if (Collection.class.isAssignableFrom(field.getType())) {
-                // 集合类型需要获取泛型类型，目前只支持一级泛型
-                ReflectUtil.setFieldValue(toConfigObject, field,
-                        Convert.toCollection(
-                                field.getType(),
-                                FieldUtil.getGenericTypes(field, 0),
-                                StrUtil.splitTrim(config.getValue(), ","))
-                );
-            } else {
-                // 复杂类型只支持json格式
-                Object value = JSON.parseObject(config.getValue(), field.getType());
-                ReflectUtil.setFieldValue(toConfigObject, field, value);
+        return LazyConfigProxy.newProxy(this, plan, snapshotSource);
+    }
+
+    @Override
+    public String getString(String type, String name, String defaultValue) {
+        return lookup(type, name, ValueConverters.STRING, defaultValue);
+    }
+
+    @Override
+    public int getInt(String type, String name, int defaultValue) {
+        return lookup(type, name, ValueConverters.forType(Integer.class), defaultValue);
+    }
+
+    @Override
+    public long getLong(String type, String name, long defaultValue) {
+        return lookup(type, name, ValueConverters.forType(Long.class), defaultValue);
+    }
+
+    @Override
+    public boolean getBoolean(String type, String name, boolean defaultValue) {
+        return lookup(type, name, ValueConverters.forType(Boolean.class), defaultValue);
+    }
+
+    @Override
+    public long getDuration(String type, String name, long defaultValueMs) {
+        return lookup(type, name, ValueConverters.DURATION, defaultValueMs);
+    }
+
+    @Override
+    public <E> List<E> getList(String type, String name, Class<E> elementType) {
+        return lookup(type, name, ValueConverters.forList(elementType), Collections.<E>emptyList());
+    }
+
+    @Override
+    public <T> T getObject(String type, String name, Class<T> valueType, T defaultValue) {
+        return lookup(type, name, ValueConverters.forType(valueType), defaultValue);
+    }
+
+    private <T> T lookup(String type, String name, ValueConverter converter, T defaultValue) {
+        return lookup(loadSnapshot(type), ConfigKey.normalized(type, name), converter, defaultValue);
+    }
+
+    /**
+     * 从配置快照获取开启的配置值并转换，不可修改的转换结果及转换失败在快照内按(配置键, 转换器)缓存，
+     * json对象等可修改的转换结果每次重新转换
+     *
+     * @param key 忽略大小写的配置键
+     */
+    @SuppressWarnings("unchecked")
+    <T> T lookup(ConfigSnapshot<? extends SystemConfig> snapshot, ConfigKey key, ValueConverter converter, T defaultValue) {
+        SystemConfig config = mustUnique(snapshot, key);
+        if (config == null) {
+            return defaultValue;
+        }
+
+        LookupKey lookupKey = new LookupKey(key, converter);
+        Object value = snapshot.getConvertedValue(lookupKey);
+        if (value == null) {
+            value = convert(config, converter);
+            if (value != null && !ValueConverters.isShareable(converter)) {
+                return (T) value;
             }
+            value = snapshot.putConvertedValue(lookupKey, value == null ? NULL_VALUE : value);
         }
 
-        return toConfigObject;
+        return value == NULL_VALUE ? defaultValue : (T) value;
+    }
+
+    /**
+     * 转换配置值，无法转换则返回null，同一快照内仅记录一次警告
+     */
+    private Object convert(SystemConfig config, ValueConverter converter) {
+        ConversionCache conversionCache = getConversionCache();
+
+        try {
+            return conversionCache == null ?
+                    converter.convert(config.getValue()) :
+                    conversionCache.convert(config.getValue(), converter);
+        } catch (RuntimeException e) {
+            log.warn(new LogMessage(this.getClass().getSimpleName(), "lookup")
+                    .fail()
+                    .append("type", config.getType())
+                    .append("name", config.getName())
+                    .append("value", config.getValue())
+                    .append("error", e.getMessage())
+                    .toString());
+            return null;
+        }
+    }
+
+    public AccessorType getAccessorType() {
+        return accessorType;
+    }
+
+    /**
+     * 设置配置类字段访问方式，默认为反射访问
+     */
+    public AbstractConfigLoader<C> setAccessorType(AccessorType accessorType) {
+        this.accessorType = accessorType;
+        bindingPlans.clear();
+        return this;
+    }
+
+    /**
+     * 加载所有配置并建立快照
+     */
+    protected ConfigSnapshot<C> loadSnapshot() {
+        return new ConfigSnapshot<C>(load());
+    }
+
+    /**
+     * 加载包含指定配置组的配置快照，默认加载所有配置
+     */
+    protected ConfigSnapshot<C> loadSnapshot(String type) {
+        return loadSnapshot();
+    }
+
+    /**
+     * 跨快照的配置值转换缓存，默认不缓存
+     * <p>
+     * 需由能够根据配置变化移除缓存的加载器提供，否则缓存将随配置值的变化无限增长
+     */
+    ConversionCache getConversionCache() {
+        return null;
+    }
+
+    /**
+     * 获取绑定计划，同一配置类、前缀及忽略字段仅构建一次
+     */
+    @SuppressWarnings("unchecked")
+    <T> BindingPlan<T> getBindingPlan(Class<T> toType, String prefix, String[] ignoreFields) {
+        BindingPlan.Key key = new BindingPlan.Key(toType, prefix, ignoreFields);
+        BindingPlan<T> plan = (BindingPlan<T>) bindingPlans.get(key);
+        if (plan != null) {
+            return plan;
+        }
+
+        plan = BindingPlan.compile(toType, prefix, ignoreFields, accessorType);
+        BindingPlan<T> existing = (BindingPlan<T>) bindingPlans.putIfAbsent(key, plan);
+        return existing != null ? existing : plan;
     }
 
     /**
      * 确保唯一性
+     *
+     * @return 开启的配置，不存在则返回null
      */
-    private SystemConfig mustUnique(Collection<? extends SystemConfig> configs) {
-        SystemConfig config = CollUtil.getFirst(configs);
+    private SystemConfig mustUnique(ConfigSnapshot<? extends SystemConfig> snapshot, ConfigKey key) {
+        SystemConfig config = snapshot.getEnabledConfig(key);
 
-        Assert.isTrue(configs.size() == 1,
-                "配置名称不唯一|name={}|type={}", config.getName(), config.getType());
+        if (config != null) {
+            Assert.isTrue(!snapshot.isDuplicate(key),
+                    "配置名称不唯一|name={}|type={}", config.getName(), config.getType());
+        }
 
         return config;
     }
@@ -112,30 +283,75 @@ public abstract class AbstractConfigLoader<C extends SystemConfig> implements Co
     /**
      * 解析前缀注解值
      */
-    private <T> String parsePrefixAnnotation(Class<T> toType) {
-        final ConfigurationProperties cp = toType.getAnnotation(ConfigurationProperties.class);
+    protected <T> String parsePrefixAnnotation(Class<T> toType) {
+        return ANNOTATION_METADATA.get(toType).getPrefix();
+    }
+
+    /**
+     * 解析忽略配置注解字段集合，返回的数组为缓存值，不可修改
+     */
+    protected <T> String[] parseIgnoreFieldsAnnotation(Class<T> toType) {
+        return ANNOTATION_METADATA.get(toType).getIgnoreFields();
+    }
+
+    /**
+     * 转换结果缓存键，转换器按引用比较
+     */
+    private static class LookupKey {
 
-        String prefix = null;
-        if (cp != null) {
-            prefix = cp.value();
+        private final ConfigKey key;
+        private final ValueConverter converter;
+
+        LookupKey(ConfigKey key, ValueConverter converter) {
+            this.key = key;
+            this.converter = converter;
         }
 
-        return prefix;
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            LookupKey that = (LookupKey) o;
+
+            return converter == that.converter && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + System.identityHashCode(converter);
+        }
     }
 
     /**
-     * 解析忽略配置注解字段集合
+     * 配置类注解元数据
      */
-    private <T> String[] parseIgnoreFieldsAnnotation(Class<T> toType) {
-        List<String> ignoreFields = new ArrayList<String>();
-        for (Field field : ReflectUtil.getFields(toType)) {
-            if (field.getAnnotation(IgnoreField.class) == null) {
-                continue;
+    private static class AnnotationMetadata {
+
+        private final String prefix;
+        private final String[] ignoreFields;
+
+        AnnotationMetadata(Class<?> toType) {
+            final ConfigurationProperties cp = toType.getAnnotation(ConfigurationProperties.class);
+            prefix = cp == null ? null : cp.value();
+
+            List<String> ignoreFields = new ArrayList<String>();
+            for (Field field : ReflectUtil.getFields(toType)) {
+                if (field.getAnnotation(IgnoreField.class) == null) {
+                    continue;
+                }
+
+                ignoreFields.add(field.getName());
             }
+            this.ignoreFields = ArrayUtil.toArray(ignoreFields, String.class);
+        }
 
-            ignoreFields.add(field.getName());
+        String getPrefix() {
+            return prefix;
         }
 
-        return ArrayUtil.toArray(ignoreFields, String.class);
+        String[] getIgnoreFields() {
+            return ignoreFields;
+        }
     }
-}
\ No newline at end of file
+}
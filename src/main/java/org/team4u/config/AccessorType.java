@@ -0,0 +1,19 @@
+package org.team4u.config;
+
+/**
+ * 配置类字段访问方式
+ *
+ * @author Jay.Wu
+ */
+public enum AccessorType {
+
+    /**
+     * 反射访问
+     */
+    REFLECTION,
+
+    /**
+     * MethodHandle访问，首次绑定时为每个实例字段生成读写句柄，静态字段或无法生成句柄时退化为反射访问
+     */
+    METHOD_HANDLE
+}
@@ -0,0 +1,127 @@
+package org.team4u.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 自适应刷新策略
+ * <p>
+ * 配置变化后缩短间隔，配置未变化时逐步延长间隔，间隔限制在[minIntervalMs, maxIntervalMs]之间；
+ * 刷新失败时按连续失败次数指数退避，退避时间不超过maxBackoffMs。
+ * 所有延迟均附加随机抖动，避免同时启动的多个节点同时刷新
+ *
+ * @author Jay.Wu
+ */
+public class AdaptiveRefreshPolicy implements RefreshPolicy {
+
+    private long minIntervalMs;
+    private long maxIntervalMs;
+    private long maxBackoffMs;
+    /**
+     * 随机抖动比例，延迟时间在[delay * (1 - jitterRatio), delay * (1 + jitterRatio)]之间
+     */
+    private double jitterRatio = 0.2;
+
+    /**
+     * 当前刷新间隔时间（毫秒）
+     */
+    private long intervalMs;
+    /**
+     * 连续失败次数
+     */
+    private int failures;
+
+    /**
+     * @param intervalMs 初始刷新间隔时间（毫秒），最小间隔为其1/4，最大间隔及最大退避时间为其4倍
+     */
+    public AdaptiveRefreshPolicy(long intervalMs) {
+        this(intervalMs, Math.max(1, intervalMs / 4), intervalMs * 4, intervalMs * 4);
+    }
+
+    /**
+     * @param intervalMs    初始刷新间隔时间（毫秒）
+     * @param minIntervalMs 最小刷新间隔时间（毫秒）
+     * @param maxIntervalMs 最大刷新间隔时间（毫秒）
+     * @param maxBackoffMs  失败时的最大退避时间（毫秒）
+     */
+    public AdaptiveRefreshPolicy(long intervalMs, long minIntervalMs, long maxIntervalMs, long maxBackoffMs) {
+        this.intervalMs = intervalMs;
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @Override
+    public long initialDelayMs() {
+        return jitter(intervalMs);
+    }
+
+    @Override
+    public long nextDelayMs(Result result) {
+        if (result == Result.FAILED) {
+            failures++;
+            return jitter(backoff());
+        }
+
+        failures = 0;
+        if (result == Result.CHANGED) {
+            // 配置刚变化，短时间内可能继续变化
+            intervalMs = Math.max(minIntervalMs, intervalMs / 2);
+        } else {
+            intervalMs = Math.min(maxIntervalMs, intervalMs + intervalMs / 2);
+        }
+
+        return jitter(intervalMs);
+    }
+
+    /**
+     * 退避时间，为当前间隔的2^连续失败次数倍
+     */
+    private long backoff() {
+        long delay = intervalMs;
+        for (int i = 0; i < failures && delay < maxBackoffMs; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, maxBackoffMs);
+    }
+
+    private long jitter(long delayMs) {
+        if (jitterRatio <= 0) {
+            return delayMs;
+        }
+
+        double factor = 1 + jitterRatio * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return Math.max(1, (long) (delayMs * factor));
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public double getJitterRatio() {
+        return jitterRatio;
+    }
+
+    /**
+     * @param jitterRatio 随机抖动比例，0则不抖动
+     */
+    public AdaptiveRefreshPolicy setJitterRatio(double jitterRatio) {
+        this.jitterRatio = jitterRatio;
+        return this;
+    }
+
+    public long getMinIntervalMs() {
+        return minIntervalMs;
+    }
+
+    public long getMaxIntervalMs() {
+        return maxIntervalMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+}
@@ -0,0 +1,202 @@
+package org.team4u.config;
+
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import org.team4u.kit.core.util.FieldUtil;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 配置类绑定计划
+ * <p>
+ * 按(配置类, 前缀, 忽略字段)预先解析字段句柄与值转换器，构建后不可变，可重复用于绑定
+ *
+ * @author Jay.Wu
+ */
+class BindingPlan<T> {
+
+    private final Class<T> toType;
+    private final String prefix;
+    private final FieldAccessors.InstanceCreator<T> instanceCreator;
+    private final List<FieldBinding> bindings;
+
+    private BindingPlan(Class<T> toType,
+                        String prefix,
+                        FieldAccessors.InstanceCreator<T> instanceCreator,
+                        List<FieldBinding> bindings) {
+        this.toType = toType;
+        this.prefix = prefix;
+        this.instanceCreator = instanceCreator;
+        this.bindings = bindings;
+    }
+
+    /**
+     * 构建绑定计划
+     */
+    static <T> BindingPlan<T> compile(Class<T> toType,
+                                      String prefix,
+                                      String[] ignoreFields,
+                                      AccessorType accessorType) {
+        List<FieldBinding> bindings = new ArrayList<FieldBinding>();
+
+        for (Field field : ReflectUtil.getFields(toType)) {
+            // 跳过忽略字段
+            if (ArrayUtil.contains(ignoreFields, field.getName())) {
+                continue;
+            }
+
+            bindings.add(new FieldBinding(
+                    field,
+                    ConfigKey.normalized(prefix, field.getName()),
+                    FieldAccessors.createFieldAccessor(field, accessorType),
+                    createConverter(field)
+            ));
+        }
+
+        return new BindingPlan<T>(
+                toType,
+                prefix,
+                FieldAccessors.createInstanceCreator(toType, accessorType),
+                Collections.unmodifiableList(bindings)
+        );
+    }
+
+    private static ValueConverter createConverter(Field field) {
+        Class<?> fieldType = field.getType();
+
+        // 集合类型需要获取泛型类型，目前只支持一级泛型
+        if (!ClassUtil.isSimpleTypeOrArray(fieldType) && Collection.class.isAssignableFrom(fieldType)) {
+            return ValueConverters.forMutableCollection(fieldType, FieldUtil.getGenericTypes(field, 0));
+        }
+
+        return ValueConverters.forType(fieldType);
+    }
+
+    /**
+     * 创建配置类实例
+     */
+    T newInstance() {
+        return instanceCreator.newInstance();
+    }
+
+    /**
+     * 复制所有绑定字段值，用于以新配置对象更新原配置对象
+     */
+    void copy(Object source, Object target) {
+        for (FieldBinding binding : bindings) {
+            binding.copy(source, target);
+        }
+    }
+
+    Class<T> getToType() {
+        return toType;
+    }
+
+    String getPrefix() {
+        return prefix;
+    }
+
+    List<FieldBinding> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * 计划缓存键
+     */
+    static class Key {
+        private final Class<?> toType;
+        private final String prefix;
+        private final String[] ignoreFields;
+        private final int hash;
+
+        Key(Class<?> toType, String prefix, String[] ignoreFields) {
+            this.toType = toType;
+            this.prefix = prefix;
+            this.ignoreFields = ignoreFields == null ? null : ignoreFields.clone();
+
+            int result = toType.hashCode();
+            result = 31 * result + (prefix != null ? prefix.hashCode() : 0);
+            this.hash = 31 * result + Arrays.hashCode(ignoreFields);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key that = (Key) o;
+
+            return toType == that.toType &&
+                    StrUtil.equals(prefix, that.prefix) &&
+                    Arrays.equals(ignoreFields, that.ignoreFields);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 字段绑定
+     */
+    static class FieldBinding {
+        private final Field field;
+        private final ConfigKey lookupKey;
+        private final FieldAccessors.FieldAccessor accessor;
+        private final ValueConverter converter;
+        private final boolean staticField;
+
+        FieldBinding(Field field,
+                     ConfigKey lookupKey,
+                     FieldAccessors.FieldAccessor accessor,
+                     ValueConverter converter) {
+            this.field = field;
+            this.lookupKey = lookupKey;
+            this.accessor = accessor;
+            this.converter = converter;
+            this.staticField = Modifier.isStatic(field.getModifiers());
+        }
+
+        /**
+         * 转换配置值并注入字段
+         *
+         * @param conversionCache 转换缓存，为null则不缓存
+         */
+        void bind(Object target, String value, ConversionCache conversionCache) {
+            accessor.set(target, conversionCache == null ?
+                    converter.convert(value) :
+                    conversionCache.convert(value, converter));
+        }
+
+        /**
+         * 复制字段值，静态字段无需复制
+         */
+        void copy(Object source, Object target) {
+            if (staticField) {
+                return;
+            }
+
+            accessor.set(target, accessor.get(source));
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * 忽略大小写的配置键，用于查找配置
+         */
+        ConfigKey getLookupKey() {
+            return lookupKey;
+        }
+    }
+}
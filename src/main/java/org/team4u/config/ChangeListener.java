@@ -0,0 +1,14 @@
+package org.team4u.config;
+
+/**
+ * 配置源变化监听器
+ *
+ * @author Jay.Wu
+ */
+public interface ChangeListener {
+
+    /**
+     * 配置源发生变化时执行的方法，应尽快返回，不应在此方法内加载配置
+     */
+    void onChange();
+}
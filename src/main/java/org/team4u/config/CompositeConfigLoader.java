@@ -0,0 +1,402 @@
+package org.team4u.config;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.log.Log;
+import cn.hutool.log.LogFactory;
+import org.team4u.kit.core.log.LogMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 组合配置加载器
+ * <p>
+ * 按优先级叠加多个配置源，如配置文件提供默认值，数据库覆盖，系统属性再覆盖。
+ * 同一配置（配置组与配置名称忽略大小写）以存在该配置的最高优先级层为准，包括未开启的配置。
+ * 每层按各自的刷新策略在{@link RefreshScheduler}上独立刷新，仅重新合并发生变化的配置，
+ * 合并结果变化时通知订阅者，通常配合{@link PullCacheConfigLoader}使用
+ *
+ * @author Jay.Wu
+ */
+public class CompositeConfigLoader<C extends SystemConfig> extends AbstractConfigLoader<C>
+        implements FingerprintConfigLoader<C>, SubscribableConfigLoader<C> {
+
+    private final Log log = LogFactory.get();
+
+    /**
+     * 配置层，按优先级从低到高排列
+     */
+    private final List<Layer> layers = new CopyOnWriteArrayList<Layer>();
+    /**
+     * 合并后的配置，键为忽略大小写的配置键，由当前对象锁保护
+     */
+    private final Map<ConfigKey, List<C>> mergedConfigs = new LinkedHashMap<ConfigKey, List<C>>();
+    /**
+     * 合并后的配置列表，合并结果变化后首次加载时重建
+     */
+    private List<C> mergedList;
+    /**
+     * 合并结果版本号，作为配置指纹
+     */
+    private volatile long version;
+    private volatile boolean initialized;
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<ChangeListener>();
+
+    private volatile boolean closed;
+
+    /**
+     * 添加优先级高于已有层的配置层，不定时刷新
+     *
+     * @see #addLayer(ConfigLoader, RefreshPolicy)
+     */
+    public CompositeConfigLoader<C> addLayer(ConfigLoader<? extends C> configLoader) {
+        return addLayer(configLoader, null);
+    }
+
+    /**
+     * 添加优先级高于已有层的配置层，需在首次加载前添加
+     *
+     * @param configLoader  配置加载器，支持订阅时在存在订阅者期间订阅其变化
+     * @param refreshPolicy 该层的刷新策略，为null则不定时刷新，策略实例不可共享
+     */
+    public synchronized CompositeConfigLoader<C> addLayer(ConfigLoader<? extends C> configLoader,
+                                                          RefreshPolicy refreshPolicy) {
+        if (initialized) {
+            throw new IllegalStateException("Layers must be added before the first load");
+        }
+
+        layers.add(new Layer(configLoader, refreshPolicy));
+        return this;
+    }
+
+    @Override
+    public synchronized List<C> load() {
+        initialize();
+
+        if (mergedList == null) {
+            List<C> configs = new ArrayList<C>(mergedConfigs.size());
+            for (List<C> keyConfigs : mergedConfigs.values()) {
+                configs.addAll(keyConfigs);
+            }
+            mergedList = Collections.unmodifiableList(configs);
+        }
+
+        return mergedList;
+    }
+
+    /**
+     * 配置指纹，为合并结果版本号，首次加载前为null
+     */
+    @Override
+    public String fingerprint() {
+        return initialized ? String.valueOf(version) : null;
+    }
+
+    /**
+     * 首次加载时加载所有层并合并，随后开始各层的定时刷新
+     */
+    private synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+
+        for (Layer layer : layers) {
+            layer.fingerprint = fingerprint(layer.configLoader);
+            layer.configs = index(layer.configLoader.load());
+        }
+
+        for (Layer layer : layers) {
+            mergedConfigs.putAll(layer.configs);
+        }
+        initialized = true;
+
+        for (Layer layer : layers) {
+            if (layer.refreshPolicy != null) {
+                scheduleRefresh(layer, layer.refreshPolicy.initialDelayMs());
+            }
+        }
+    }
+
+    /**
+     * 立即刷新所有层
+     */
+    public void refresh() {
+        initialize();
+
+        for (Layer layer : layers) {
+            refreshLayer(layer);
+        }
+    }
+
+    private void scheduleRefresh(final Layer layer, long delayMs) {
+        if (closed) {
+            return;
+        }
+
+        layer.refreshFuture = RefreshScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (closed) {
+                    return;
+                }
+
+                RefreshPolicy.Result result = RefreshPolicy.Result.FAILED;
+                try {
+                    result = refreshLayer(layer);
+                } finally {
+                    scheduleRefresh(layer, layer.refreshPolicy.nextDelayMs(result));
+                }
+            }
+        }, delayMs);
+    }
+
+    /**
+     * 刷新配置层，仅重新合并该层发生变化的配置
+     *
+     * @return 刷新结果
+     */
+    private RefreshPolicy.Result refreshLayer(Layer layer) {
+        // 首次加载时将加载所有层
+        if (!initialized) {
+            return RefreshPolicy.Result.UNCHANGED;
+        }
+
+        Set<ConfigKey> changedKeys;
+
+        // 同一层的刷新串行执行，加载期间不阻塞其他层
+        synchronized (layer) {
+            try {
+                String fingerprint = fingerprint(layer.configLoader);
+                if (fingerprint != null && fingerprint.equals(layer.fingerprint)) {
+                    return RefreshPolicy.Result.UNCHANGED;
+                }
+
+                Map<ConfigKey, List<C>> newConfigs = index(layer.configLoader.load());
+                changedKeys = changedKeys(layer.configs, newConfigs);
+
+                synchronized (this) {
+                    layer.fingerprint = fingerprint;
+                    layer.configs = newConfigs;
+
+                    if (changedKeys.isEmpty()) {
+                        return RefreshPolicy.Result.UNCHANGED;
+                    }
+
+                    merge(changedKeys);
+                }
+            } catch (Throwable e) {
+                log.error(e, new LogMessage(this.getClass().getSimpleName(), "refreshLayer")
+                        .fail()
+                        .append("layer", layer.configLoader.getClass().getSimpleName())
+                        .toString());
+                return RefreshPolicy.Result.FAILED;
+            }
+        }
+
+        log.info(new LogMessage(this.getClass().getSimpleName(), "refreshLayer")
+                .success()
+                .append("layer", layer.configLoader.getClass().getSimpleName())
+                .append("changedKeys", changedKeys.size())
+                .toString());
+
+        for (ChangeListener listener : listeners) {
+            listener.onChange();
+        }
+        return RefreshPolicy.Result.CHANGED;
+    }
+
+    /**
+     * 重新合并指定配置，以存在该配置的最高优先级层为准
+     */
+    private void merge(Set<ConfigKey> keys) {
+        for (ConfigKey key : keys) {
+            List<C> configs = null;
+            for (int i = layers.size() - 1; i >= 0 && configs == null; i--) {
+                configs = layers.get(i).configs.get(key);
+            }
+
+            if (configs == null) {
+                mergedConfigs.remove(key);
+            } else {
+                mergedConfigs.put(key, configs);
+            }
+        }
+
+        mergedList = null;
+        version++;
+    }
+
+    /**
+     * 按忽略大小写的配置键索引配置，保持加载顺序
+     */
+    private Map<ConfigKey, List<C>> index(List<? extends C> configs) {
+        Map<ConfigKey, List<C>> result = new LinkedHashMap<ConfigKey, List<C>>(configs.size() * 4 / 3 + 1);
+
+        for (C config : configs) {
+            ConfigKey key = ConfigKey.normalized(config);
+            List<C> keyConfigs = result.get(key);
+            if (keyConfigs == null) {
+                keyConfigs = new ArrayList<C>(1);
+                result.put(key, keyConfigs);
+            }
+
+            keyConfigs.add(config);
+        }
+
+        return result;
+    }
+
+    /**
+     * 比较同一层新旧配置，返回新增、删除或内容变化的配置键
+     */
+    private Set<ConfigKey> changedKeys(Map<ConfigKey, List<C>> oldConfigs, Map<ConfigKey, List<C>> newConfigs) {
+        Set<ConfigKey> result = new HashSet<ConfigKey>();
+
+        for (Map.Entry<ConfigKey, List<C>> entry : newConfigs.entrySet()) {
+            if (isModified(oldConfigs.get(entry.getKey()), entry.getValue())) {
+                result.add(entry.getKey());
+            }
+        }
+
+        for (ConfigKey key : oldConfigs.keySet()) {
+            if (!newConfigs.containsKey(key)) {
+                result.add(key);
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isModified(List<C> oldConfigs, List<C> newConfigs) {
+        if (oldConfigs == null || oldConfigs.size() != newConfigs.size()) {
+            return true;
+        }
+
+        for (int i = 0; i < newConfigs.size(); i++) {
+            C oldConfig = oldConfigs.get(i);
+            C newConfig = newConfigs.get(i);
+            if (!StrUtil.equals(oldConfig.getType(), newConfig.getType()) ||
+                    !StrUtil.equals(oldConfig.getName(), newConfig.getName()) ||
+                    ConfigDiffer.isModified(oldConfig, newConfig)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private String fingerprint(ConfigLoader<?> configLoader) {
+        if (configLoader instanceof FingerprintConfigLoader) {
+            return ((FingerprintConfigLoader<?>) configLoader).fingerprint();
+        }
+
+        return null;
+    }
+
+    /**
+     * 订阅合并结果变化，首个订阅者订阅时同时订阅支持订阅的配置层
+     */
+    @Override
+    public synchronized void subscribe(ChangeListener listener) {
+        listeners.add(listener);
+
+        if (listeners.size() > 1) {
+            return;
+        }
+
+        for (Layer layer : layers) {
+            if (layer.configLoader instanceof SubscribableConfigLoader) {
+                ((SubscribableConfigLoader<?>) layer.configLoader).subscribe(layer.changeListener);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void unsubscribe(ChangeListener listener) {
+        if (!listeners.remove(listener) || !listeners.isEmpty()) {
+            return;
+        }
+
+        unsubscribeLayers();
+    }
+
+    private void unsubscribeLayers() {
+        for (Layer layer : layers) {
+            if (layer.configLoader instanceof SubscribableConfigLoader) {
+                ((SubscribableConfigLoader<?>) layer.configLoader).unsubscribe(layer.changeListener);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+
+        synchronized (this) {
+            if (!listeners.isEmpty()) {
+                listeners.clear();
+                unsubscribeLayers();
+            }
+        }
+
+        for (Layer layer : layers) {
+            ScheduledFuture<?> future = layer.refreshFuture;
+            if (future != null) {
+                future.cancel(false);
+            }
+
+            layer.configLoader.close();
+        }
+    }
+
+    /**
+     * 配置层
+     */
+    private class Layer {
+
+        private final ConfigLoader<? extends C> configLoader;
+        private final RefreshPolicy refreshPolicy;
+
+        /**
+         * 该层配置，键为忽略大小写的配置键
+         */
+        private volatile Map<ConfigKey, List<C>> configs = Collections.emptyMap();
+        /**
+         * 最近一次加载时的配置指纹
+         */
+        private String fingerprint;
+
+        private volatile ScheduledFuture<?> refreshFuture;
+
+        /**
+         * 配置层变化时异步刷新该层
+         */
+        private final ChangeListener changeListener = new ChangeListener() {
+            @Override
+            public void onChange() {
+                RefreshScheduler.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!closed) {
+                            refreshLayer(Layer.this);
+                        }
+                    }
+                });
+            }
+        };
+
+        Layer(ConfigLoader<? extends C> configLoader, RefreshPolicy refreshPolicy) {
+            this.configLoader = configLoader;
+            this.refreshPolicy = refreshPolicy;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.team4u.config;
+
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.log.Log;
+import cn.hutool.log.LogFactory;
+import org.team4u.kit.core.log.LogMessage;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 配置变更分发器
+ * <p>
+ * 每个监听器拥有独立的有界队列，在执行器上串行按序接收配置变更集合，
+ * 慢监听器或出错的监听器不会阻塞刷新，也不会影响其他监听器。队列已满时丢弃新的变更集合并记录错误。
+ * <p>
+ * 监听器可订阅全部配置、指定配置组或指定配置键，订阅按忽略大小写的键建立索引，
+ * 每个变化仅查找索引一次即可路由至相关监听器，相关监听器仅收到其订阅范围内的变更集合。
+ * 同一监听器的多个订阅共享一个工作者，每次分发最多收到一个变更集合
+ *
+ * @author Jay.Wu
+ */
+class ConfigChangeDispatcher<C extends SystemConfig> {
+
+    /**
+     * 默认每个监听器的队列容量
+     */
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * 默认执行器，线程数不超过同时处理变更的监听器数量
+     */
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(
+            ThreadUtil.newNamedThreadFactory("simple-config-dispatch-", true));
+
+    private final Log log = LogFactory.get();
+
+    /**
+     * 订阅全部配置的监听器
+     */
+    private final CopyOnWriteArrayList<ListenerWorker> workers = new CopyOnWriteArrayList<ListenerWorker>();
+    /**
+     * 按配置组订阅的监听器，键为配置名称为null的忽略大小写配置键
+     */
+    private final ConcurrentMap<ConfigKey, CopyOnWriteArrayList<ListenerWorker>> typeWorkers =
+            new ConcurrentHashMap<ConfigKey, CopyOnWriteArrayList<ListenerWorker>>();
+    /**
+     * 按配置键订阅的监听器，键为忽略大小写的配置键
+     */
+    private final ConcurrentMap<ConfigKey, CopyOnWriteArrayList<ListenerWorker>> keyWorkers =
+            new ConcurrentHashMap<ConfigKey, CopyOnWriteArrayList<ListenerWorker>>();
+    /**
+     * 监听器对应的工作者，按监听器实例区分
+     */
+    private final Map<ConfigChangeListener<C>, ListenerWorker> listenerWorkers =
+            new IdentityHashMap<ConfigChangeListener<C>, ListenerWorker>();
+
+    private volatile Executor executor = DEFAULT_EXECUTOR;
+
+    private volatile int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * 添加订阅全部配置的监听器
+     */
+    void addListener(ConfigChangeListener<C> listener) {
+        ListenerWorker worker = workerOf(listener);
+        worker.subscribedAll = true;
+        workers.addIfAbsent(worker);
+    }
+
+    /**
+     * 添加订阅指定配置组的监听器
+     */
+    void addListener(String type, ConfigChangeListener<C> listener) {
+        addListener(typeWorkers, ConfigKey.normalized(type, null), listener);
+    }
+
+    /**
+     * 添加订阅指定配置键的监听器
+     */
+    void addListener(String type, String name, ConfigChangeListener<C> listener) {
+        addListener(keyWorkers, ConfigKey.normalized(type, name), listener);
+    }
+
+    private void addListener(ConcurrentMap<ConfigKey, CopyOnWriteArrayList<ListenerWorker>> index,
+                             ConfigKey key,
+                             ConfigChangeListener<C> listener) {
+        CopyOnWriteArrayList<ListenerWorker> workerList = index.get(key);
+        if (workerList == null) {
+            workerList = new CopyOnWriteArrayList<ListenerWorker>();
+            CopyOnWriteArrayList<ListenerWorker> existingWorkers = index.putIfAbsent(key, workerList);
+            if (existingWorkers != null) {
+                workerList = existingWorkers;
+            }
+        }
+
+        workerList.addIfAbsent(workerOf(listener));
+    }
+
+    /**
+     * 获取监听器的工作者，不存在则创建
+     */
+    private ListenerWorker workerOf(ConfigChangeListener<C> listener) {
+        synchronized (listenerWorkers) {
+            ListenerWorker worker = listenerWorkers.get(listener);
+            if (worker == null) {
+                worker = new ListenerWorker(listener, queueCapacity);
+                listenerWorkers.put(listener, worker);
+            }
+            return worker;
+        }
+    }
+
+    /**
+     * 移除监听器的所有订阅
+     */
+    boolean removeListener(ConfigChangeListener<C> listener) {
+        synchronized (listenerWorkers) {
+            ListenerWorker worker = listenerWorkers.remove(listener);
+            if (worker != null) {
+                worker.subscribedAll = false;
+            }
+        }
+
+        boolean result = removeListener(workers, listener);
+
+        for (List<ListenerWorker> typeWorkerList : typeWorkers.values()) {
+            result |= removeListener(typeWorkerList, listener);
+        }
+        for (List<ListenerWorker> keyWorkerList : keyWorkers.values()) {
+            result |= removeListener(keyWorkerList, listener);
+        }
+
+        return result;
+    }
+
+    private boolean removeListener(List<ListenerWorker> workerList, ConfigChangeListener<C> listener) {
+        boolean result = false;
+        for (ListenerWorker worker : workerList) {
+            if (worker.listener == listener) {
+                result |= workerList.remove(worker);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 分发配置变更集合至相关监听器，不等待监听器执行
+     */
+    void dispatch(ConfigChangeSet<C> changeSet) {
+        for (ListenerWorker worker : workers) {
+            worker.offer(changeSet);
+        }
+
+        if (typeWorkers.isEmpty() && keyWorkers.isEmpty()) {
+            return;
+        }
+
+        // 按监听器归集其订阅范围内的变化
+        Map<ListenerWorker, ChangeBatch> batches = new IdentityHashMap<ListenerWorker, ChangeBatch>();
+        for (C config : changeSet.getCreatedConfigs()) {
+            for (ChangeBatch batch : route(batches, config)) {
+                batch.created.add(config);
+            }
+        }
+        for (ConfigChangeSet.Modification<C> modification : changeSet.getModifiedConfigs()) {
+            for (ChangeBatch batch : route(batches, modification.getNewConfig())) {
+                batch.modified.add(modification);
+            }
+        }
+        for (C config : changeSet.getDeletedConfigs()) {
+            for (ChangeBatch batch : route(batches, config)) {
+                batch.deleted.add(config);
+            }
+        }
+
+        for (Map.Entry<ListenerWorker, ChangeBatch> entry : batches.entrySet()) {
+            ChangeBatch batch = entry.getValue();
+            entry.getKey().offer(new ConfigChangeSet<C>(batch.created, batch.modified, batch.deleted));
+        }
+    }
+
+    /**
+     * 查找订阅了指定配置的监听器对应的变化批次
+     */
+    private List<ChangeBatch> route(Map<ListenerWorker, ChangeBatch> batches, C config) {
+        List<ListenerWorker> typeWorkerList = typeWorkers.get(ConfigKey.normalized(config.getType(), null));
+        List<ListenerWorker> keyWorkerList = keyWorkers.get(ConfigKey.normalized(config));
+
+        List<ChangeBatch> result = new ArrayList<ChangeBatch>(2);
+        addBatches(batches, typeWorkerList, result);
+        addBatches(batches, keyWorkerList, result);
+        return result;
+    }
+
+    private void addBatches(Map<ListenerWorker, ChangeBatch> batches,
+                            List<ListenerWorker> workerList,
+                            List<ChangeBatch> result) {
+        if (workerList == null) {
+            return;
+        }
+
+        for (ListenerWorker worker : workerList) {
+            // 订阅全部配置的监听器已收到完整的变更集合
+            if (worker.subscribedAll) {
+                continue;
+            }
+
+            ChangeBatch batch = batches.get(worker);
+            if (batch == null) {
+                batch = new ChangeBatch();
+                batches.put(worker, batch);
+            }
+            // 同时按配置组与配置键订阅时，同一变化仅归集一次
+            if (!result.contains(batch)) {
+                result.add(batch);
+            }
+        }
+    }
+
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 设置队列容量，仅对之后添加的监听器生效
+     */
+    void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * 单个监听器订阅范围内的变化
+     */
+    private class ChangeBatch {
+
+        private final List<C> created = new ArrayList<C>();
+        private final List<ConfigChangeSet.Modification<C>> modified = new ArrayList<ConfigChangeSet.Modification<C>>();
+        private final List<C> deleted = new ArrayList<C>();
+    }
+
+    /**
+     * 监听器工作者，保证同一监听器串行按序执行
+     */
+    private class ListenerWorker implements Runnable {
+
+        private final ConfigChangeListener<C> listener;
+        private final BlockingQueue<ConfigChangeSet<C>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        /**
+         * 是否订阅全部配置
+         */
+        private volatile boolean subscribedAll;
+
+        ListenerWorker(ConfigChangeListener<C> listener, int queueCapacity) {
+            this.listener = listener;
+            this.queue = new LinkedBlockingQueue<ConfigChangeSet<C>>(queueCapacity);
+        }
+
+        void offer(ConfigChangeSet<C> changeSet) {
+            if (!queue.offer(changeSet)) {
+                log.error(new LogMessage(ConfigChangeDispatcher.class.getSimpleName(), "dispatch")
+                        .fail()
+                        .append("listener", listener)
+                        .append("reason", "queue is full")
+                        .append("changeSet", changeSet)
+                        .toString());
+                return;
+            }
+
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                log.error(e, new LogMessage(ConfigChangeDispatcher.class.getSimpleName(), "dispatch")
+                        .fail()
+                        .append("listener", listener)
+                        .toString());
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                ConfigChangeSet<C> changeSet;
+                while ((changeSet = queue.poll()) != null) {
+                    try {
+                        listener.onChange(changeSet);
+                    } catch (Throwable e) {
+                        log.error(e, new LogMessage(ConfigChangeDispatcher.class.getSimpleName(), "onChange")
+                                .fail()
+                                .append("listener", listener)
+                                .toString());
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+
+            // 释放标记前入队的变更集合可能未被调度
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.team4u.config;
+
+/**
+ * 配置变更监听器
+ * <p>
+ * 每次刷新产生变化时接收一个完整的配置变更集合
+ *
+ * @author Jay.Wu
+ */
+public interface ConfigChangeListener<C extends SystemConfig> {
+
+    /**
+     * 配置变化时执行的方法，异常将被记录并忽略，不影响其他监听器
+     *
+     * @param changeSet 本次刷新的配置变更集合
+     */
+    void onChange(ConfigChangeSet<C> changeSet);
+}
@@ -0,0 +1,113 @@
+package org.team4u.config;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 配置变更集合，描述两次配置快照之间新增、修改与删除的配置
+ *
+ * @author Jay.Wu
+ */
+public class ConfigChangeSet<C extends SystemConfig> {
+
+    private final List<C> createdConfigs;
+    private final List<Modification<C>> modifiedConfigs;
+    private final List<C> deletedConfigs;
+    /**
+     * 发生变化的配置组，已转为小写
+     */
+    private final Set<String> changedTypes;
+
+    public ConfigChangeSet(List<C> createdConfigs, List<Modification<C>> modifiedConfigs, List<C> deletedConfigs) {
+        this.createdConfigs = Collections.unmodifiableList(createdConfigs);
+        this.modifiedConfigs = Collections.unmodifiableList(modifiedConfigs);
+        this.deletedConfigs = Collections.unmodifiableList(deletedConfigs);
+
+        Set<String> changedTypes = new HashSet<String>();
+        for (C config : createdConfigs) {
+            changedTypes.add(ConfigKey.normalize(config.getType()));
+        }
+        for (Modification<C> modification : modifiedConfigs) {
+            changedTypes.add(ConfigKey.normalize(modification.getNewConfig().getType()));
+        }
+        for (C config : deletedConfigs) {
+            changedTypes.add(ConfigKey.normalize(config.getType()));
+        }
+        this.changedTypes = Collections.unmodifiableSet(changedTypes);
+    }
+
+    /**
+     * 新增的配置
+     */
+    public List<C> getCreatedConfigs() {
+        return createdConfigs;
+    }
+
+    /**
+     * 修改的配置
+     */
+    public List<Modification<C>> getModifiedConfigs() {
+        return modifiedConfigs;
+    }
+
+    /**
+     * 删除的配置
+     */
+    public List<C> getDeletedConfigs() {
+        return deletedConfigs;
+    }
+
+    /**
+     * 发生变化的配置组，已转为小写，见{@link ConfigKey#normalize(String)}
+     */
+    public Set<String> getChangedTypes() {
+        return changedTypes;
+    }
+
+    /**
+     * 指定配置组是否发生变化，忽略大小写
+     */
+    public boolean isTypeChanged(String type) {
+        return changedTypes.contains(ConfigKey.normalize(type));
+    }
+
+    /**
+     * 是否无任何变化
+     */
+    public boolean isEmpty() {
+        return createdConfigs.isEmpty() && modifiedConfigs.isEmpty() && deletedConfigs.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                "created=" + createdConfigs.size() +
+                ", modified=" + modifiedConfigs.size() +
+                ", deleted=" + deletedConfigs.size() +
+                '}';
+    }
+
+    /**
+     * 配置修改项
+     */
+    public static class Modification<C extends SystemConfig> {
+
+        private final C oldConfig;
+        private final C newConfig;
+
+        public Modification(C oldConfig, C newConfig) {
+            this.oldConfig = oldConfig;
+            this.newConfig = newConfig;
+        }
+
+        public C getOldConfig() {
+            return oldConfig;
+        }
+
+        public C getNewConfig() {
+            return newConfig;
+        }
+    }
+}
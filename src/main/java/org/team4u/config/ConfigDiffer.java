@@ -0,0 +1,107 @@
+package org.team4u.config;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 配置比较器
+ * <p>
+ * 按(配置组, 配置名称)对新旧快照进行一次哈希比较，时间复杂度为O(n)。
+ * 同一配置键存在多条配置时逐条比较：内容一致的配置视为未变化，其余按加载顺序一一对应
+ *
+ * @author Jay.Wu
+ */
+public class ConfigDiffer {
+
+    /**
+     * 比较新旧配置快照
+     *
+     * @param oldSnapshot 旧配置快照
+     * @param newSnapshot 新配置快照
+     * @return 配置变更集合
+     */
+    public static <C extends SystemConfig> ConfigChangeSet<C> diff(ConfigSnapshot<C> oldSnapshot,
+                                                                   ConfigSnapshot<C> newSnapshot) {
+        List<C> createdConfigs = new ArrayList<C>();
+        List<ConfigChangeSet.Modification<C>> modifiedConfigs = new ArrayList<ConfigChangeSet.Modification<C>>();
+        List<C> deletedConfigs = new ArrayList<C>();
+
+        for (Map.Entry<ConfigKey, List<C>> entry : newSnapshot.getConfigsByKey().entrySet()) {
+            List<C> newConfigs = entry.getValue();
+            List<C> oldConfigs = oldSnapshot.getConfigs(entry.getKey());
+
+            if (oldConfigs.size() == 1 && newConfigs.size() == 1) {
+                C oldConfig = oldConfigs.get(0);
+                C newConfig = newConfigs.get(0);
+                if (isModified(oldConfig, newConfig)) {
+                    modifiedConfigs.add(new ConfigChangeSet.Modification<C>(oldConfig, newConfig));
+                }
+                continue;
+            }
+
+            diff(oldConfigs, newConfigs, createdConfigs, modifiedConfigs, deletedConfigs);
+        }
+
+        for (Map.Entry<ConfigKey, List<C>> entry : oldSnapshot.getConfigsByKey().entrySet()) {
+            if (newSnapshot.getConfigs(entry.getKey()).isEmpty()) {
+                deletedConfigs.addAll(entry.getValue());
+            }
+        }
+
+        return new ConfigChangeSet<C>(createdConfigs, modifiedConfigs, deletedConfigs);
+    }
+
+    /**
+     * 比较同一配置键的多条配置
+     */
+    private static <C extends SystemConfig> void diff(List<C> oldConfigs,
+                                                      List<C> newConfigs,
+                                                      List<C> createdConfigs,
+                                                      List<ConfigChangeSet.Modification<C>> modifiedConfigs,
+                                                      List<C> deletedConfigs) {
+        List<C> remainingOldConfigs = new ArrayList<C>(oldConfigs);
+        List<C> remainingNewConfigs = new ArrayList<C>();
+
+        // 排除内容一致的配置，不依赖重复配置的加载顺序
+        for (C newConfig : newConfigs) {
+            boolean unchanged = false;
+            for (Iterator<C> iterator = remainingOldConfigs.iterator(); iterator.hasNext(); ) {
+                if (!isModified(iterator.next(), newConfig)) {
+                    iterator.remove();
+                    unchanged = true;
+                    break;
+                }
+            }
+
+            if (!unchanged) {
+                remainingNewConfigs.add(newConfig);
+            }
+        }
+
+        int pairs = Math.min(remainingOldConfigs.size(), remainingNewConfigs.size());
+        for (int i = 0; i < pairs; i++) {
+            modifiedConfigs.add(new ConfigChangeSet.Modification<C>(remainingOldConfigs.get(i), remainingNewConfigs.get(i)));
+        }
+        createdConfigs.addAll(remainingNewConfigs.subList(pairs, remainingNewConfigs.size()));
+        deletedConfigs.addAll(remainingOldConfigs.subList(pairs, remainingOldConfigs.size()));
+    }
+
+    /**
+     * 同一配置键的配置内容是否变化
+     */
+    public static boolean isModified(SystemConfig oldConfig, SystemConfig newConfig) {
+        if (oldConfig == newConfig) {
+            return false;
+        }
+
+        return !StrUtil.equals(oldConfig.getValue(), newConfig.getValue()) ||
+                !StrUtil.equals(oldConfig.getDescription(), newConfig.getDescription()) ||
+                oldConfig.getSequenceNo() != newConfig.getSequenceNo() ||
+                !ObjectUtil.equal(oldConfig.getEnabled(), newConfig.getEnabled());
+    }
+}
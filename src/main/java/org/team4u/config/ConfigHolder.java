@@ -0,0 +1,28 @@
+package org.team4u.config;
+
+/**
+ * 配置持有者
+ * <p>
+ * 持有不可变使用的配置对象，刷新时整体原子替换为新的配置对象，读取方总是获得同一版本的完整配置
+ *
+ * @author Jay.Wu
+ */
+public class ConfigHolder<T> {
+
+    private volatile T value;
+
+    ConfigHolder(T value) {
+        this.value = value;
+    }
+
+    /**
+     * 获取当前配置对象，调用方不应修改返回的配置对象
+     */
+    public T get() {
+        return value;
+    }
+
+    void set(T value) {
+        this.value = value;
+    }
+}
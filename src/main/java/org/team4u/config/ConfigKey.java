@@ -0,0 +1,74 @@
+package org.team4u.config;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.Locale;
+
+/**
+ * 配置键，由配置组与配置名称组成
+ *
+ * @author Jay.Wu
+ */
+public final class ConfigKey {
+
+    private final String type;
+    private final String name;
+    private final int hash;
+
+    public ConfigKey(String type, String name) {
+        this.type = type;
+        this.name = name;
+
+        int result = type != null ? type.hashCode() : 0;
+        this.hash = 31 * result + (name != null ? name.hashCode() : 0);
+    }
+
+    /**
+     * 创建忽略大小写的配置键
+     */
+    public static ConfigKey normalized(String type, String name) {
+        return new ConfigKey(normalize(type), normalize(name));
+    }
+
+    /**
+     * 创建忽略大小写的配置键
+     */
+    public static ConfigKey normalized(SystemConfig config) {
+        return normalized(config.getType(), config.getName());
+    }
+
+    /**
+     * 统一转为小写，用于忽略大小写的查找
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ENGLISH);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ConfigKey that = (ConfigKey) o;
+
+        return hash == that.hash && StrUtil.equals(type, that.type) && StrUtil.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return type + "." + name;
+    }
+}
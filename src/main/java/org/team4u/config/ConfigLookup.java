@@ -0,0 +1,60 @@
+package org.team4u.config;
+
+import java.util.List;
+
+/**
+ * 单个配置读取
+ *
+ * @author Jay.Wu
+ */
+public interface ConfigLookup {
+
+    /**
+     * 获取开启的配置值，配置组与配置名称忽略大小写
+     *
+     * @return 配置值，不存在则返回默认值
+     */
+    String getString(String type, String name, String defaultValue);
+
+    /**
+     * 获取开启的配置值并转换为整数
+     *
+     * @return 配置值，不存在或无法转换则返回默认值
+     */
+    int getInt(String type, String name, int defaultValue);
+
+    /**
+     * 获取开启的配置值并转换为长整数
+     *
+     * @return 配置值，不存在或无法转换则返回默认值
+     */
+    long getLong(String type, String name, long defaultValue);
+
+    /**
+     * 获取开启的配置值并转换为布尔值
+     *
+     * @return 配置值，不存在或无法转换则返回默认值
+     */
+    boolean getBoolean(String type, String name, boolean defaultValue);
+
+    /**
+     * 获取开启的配置值并转换为时长，支持ms、s、m、h、d单位，无单位为毫秒
+     *
+     * @return 毫秒数，不存在或无法转换则返回默认值
+     */
+    long getDuration(String type, String name, long defaultValueMs);
+
+    /**
+     * 获取开启的配置值，按逗号拆分并转换为列表
+     *
+     * @return 不可修改的列表，不存在则返回空列表
+     */
+    <E> List<E> getList(String type, String name, Class<E> elementType);
+
+    /**
+     * 获取开启的配置值并转换为指定类型，复杂类型按json格式解析
+     *
+     * @return 配置值，json对象等可修改的配置值每次重新转换；不存在或无法转换则返回默认值
+     */
+    <T> T getObject(String type, String name, Class<T> valueType, T defaultValue);
+}
@@ -0,0 +1,209 @@
+package org.team4u.config;
+
+import cn.hutool.core.util.ObjectUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 配置快照
+ * <p>
+ * 构建时按(配置组, 配置名称)索引所有配置，按忽略大小写的键索引开启的配置并检测重复配置，构建后不可变。
+ * 快照内缓存配置值的转换结果，配置变化时随新快照一同失效
+ *
+ * @author Jay.Wu
+ */
+public class ConfigSnapshot<C extends SystemConfig> {
+
+    private final List<C> configs;
+    /**
+     * 所有配置索引，区分大小写，同一配置键允许存在多条配置
+     */
+    private final Map<ConfigKey, List<C>> configsByKey;
+    /**
+     * 开启的配置索引
+     */
+    private final Map<ConfigKey, C> enabledConfigs;
+    /**
+     * 重复的开启配置键集合
+     */
+    private final Set<ConfigKey> duplicateKeys;
+    /**
+     * 配置值转换结果缓存，首次转换时创建
+     */
+    private volatile ConcurrentMap<Object, Object> convertedValues;
+
+    public ConfigSnapshot(List<C> configs) {
+        this.configs = Collections.unmodifiableList(new ArrayList<C>(configs));
+
+        Map<ConfigKey, List<C>> configsByKey = new LinkedHashMap<ConfigKey, List<C>>(configs.size() * 4 / 3 + 1);
+        Map<ConfigKey, C> enabledConfigs = new HashMap<ConfigKey, C>(configs.size() * 4 / 3 + 1);
+        Set<ConfigKey> duplicateKeys = new HashSet<ConfigKey>();
+
+        for (C config : configs) {
+            ConfigKey exactKey = new ConfigKey(config.getType(), config.getName());
+            List<C> keyConfigs = configsByKey.get(exactKey);
+            if (keyConfigs == null) {
+                // 配置键通常唯一，仅在重复时创建可变列表
+                configsByKey.put(exactKey, Collections.singletonList(config));
+            } else {
+                if (keyConfigs.size() == 1) {
+                    keyConfigs = new ArrayList<C>(keyConfigs);
+                    configsByKey.put(exactKey, keyConfigs);
+                }
+                keyConfigs.add(config);
+            }
+
+            if (!Boolean.TRUE.equals(config.getEnabled())) {
+                continue;
+            }
+
+            ConfigKey key = ConfigKey.normalized(config);
+            if (enabledConfigs.containsKey(key)) {
+                duplicateKeys.add(key);
+                continue;
+            }
+
+            enabledConfigs.put(key, config);
+        }
+
+        this.configsByKey = configsByKey;
+        this.enabledConfigs = enabledConfigs;
+        this.duplicateKeys = duplicateKeys;
+    }
+
+    /**
+     * 所有配置，包含未开启的配置
+     */
+    public List<C> getConfigs() {
+        return configs;
+    }
+
+    /**
+     * 所有配置索引，键区分大小写，按加载顺序排列，值为该配置键的所有配置
+     */
+    public Map<ConfigKey, List<C>> getConfigsByKey() {
+        return Collections.unmodifiableMap(configsByKey);
+    }
+
+    /**
+     * 获取配置键的所有配置，包含未开启的配置
+     *
+     * @param key 区分大小写的配置键
+     * @return 按加载顺序排列的配置，不存在则返回空列表
+     */
+    public List<C> getConfigs(ConfigKey key) {
+        List<C> keyConfigs = configsByKey.get(key);
+        return keyConfigs == null ? Collections.<C>emptyList() : Collections.unmodifiableList(keyConfigs);
+    }
+
+    /**
+     * 获取开启的配置
+     *
+     * @param key 忽略大小写的配置键，见{@link ConfigKey#normalized(String, String)}
+     * @return 配置，不存在则返回null，存在重复时返回第一个
+     */
+    public C getEnabledConfig(ConfigKey key) {
+        return enabledConfigs.get(key);
+    }
+
+    /**
+     * 获取开启的配置
+     */
+    public C getEnabledConfig(String type, String name) {
+        return getEnabledConfig(ConfigKey.normalized(type, name));
+    }
+
+    /**
+     * 开启的配置是否重复
+     */
+    public boolean isDuplicate(ConfigKey key) {
+        return duplicateKeys.contains(key);
+    }
+
+    /**
+     * 复用当前快照中未变化的配置对象
+     * <p>
+     * 配置键、配置内容及更新时间均一致的新配置替换为当前快照中的配置对象，同一配置对象仅复用一次，
+     * 新配置对象随即可被回收，且比较新旧快照时可直接按引用判断未变化
+     *
+     * @param newConfigs 新加载的配置
+     * @return 新配置列表，不修改传入的列表
+     */
+    public List<C> reuseUnchanged(List<C> newConfigs) {
+        List<C> result = new ArrayList<C>(newConfigs.size());
+        Set<C> reusedDuplicates = null;
+
+        for (C newConfig : newConfigs) {
+            List<C> oldConfigs = configsByKey.get(new ConfigKey(newConfig.getType(), newConfig.getName()));
+            C reusedConfig = null;
+            if (oldConfigs != null) {
+                for (C oldConfig : oldConfigs) {
+                    if (ConfigDiffer.isModified(oldConfig, newConfig) ||
+                            !ObjectUtil.equal(oldConfig.getUpdateTime(), newConfig.getUpdateTime())) {
+                        continue;
+                    }
+
+                    // 重复配置逐一对应，避免多条新配置复用同一配置对象
+                    if (oldConfigs.size() > 1) {
+                        if (reusedDuplicates == null) {
+                            reusedDuplicates = Collections.newSetFromMap(new IdentityHashMap<C, Boolean>());
+                        }
+                        if (!reusedDuplicates.add(oldConfig)) {
+                            continue;
+                        }
+                    }
+
+                    reusedConfig = oldConfig;
+                    break;
+                }
+            }
+
+            result.add(reusedConfig != null ? reusedConfig : newConfig);
+        }
+
+        return result;
+    }
+
+    /**
+     * 获取缓存的转换结果
+     *
+     * @return 转换结果，未缓存则返回null
+     */
+    Object getConvertedValue(Object key) {
+        ConcurrentMap<Object, Object> values = convertedValues;
+        return values == null ? null : values.get(key);
+    }
+
+    /**
+     * 缓存转换结果，已存在则返回已缓存的结果
+     */
+    Object putConvertedValue(Object key, Object value) {
+        ConcurrentMap<Object, Object> values = convertedValues;
+        if (values == null) {
+            synchronized (this) {
+                values = convertedValues;
+                if (values == null) {
+                    values = new ConcurrentHashMap<Object, Object>();
+                    convertedValues = values;
+                }
+            }
+        }
+
+        Object existingValue = values.putIfAbsent(key, value);
+        return existingValue != null ? existingValue : value;
+    }
+
+    public int size() {
+        return configs.size();
+    }
+}
@@ -0,0 +1,126 @@
+package org.team4u.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 配置值转换缓存
+ * <p>
+ * 按(原始配置值, 转换器)缓存集合等开销较大的转换结果，转换器已区分目标类型及泛型类型。
+ * 缓存以原始值为键，不会返回过期结果；配置修改或删除时按旧值移除，仅用于释放不再使用的转换结果。
+ * 相同配置值的转换结果为同一对象，仅缓存不可修改的结果，见{@link ValueConverters#isCacheable(ValueConverter)}；
+ * 配置类的集合字段复用缓存的解析结果，但每次复制为新的可修改集合
+ *
+ * @author Jay.Wu
+ */
+class ConversionCache {
+
+    /**
+     * 转换结果为null时的缓存值
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    private final ConcurrentMap<String, Conversions> cache = new ConcurrentHashMap<String, Conversions>();
+
+    /**
+     * 转换配置值，可缓存的转换器优先读取缓存
+     */
+    Object convert(String rawValue, ValueConverter converter) {
+        if (rawValue != null && converter instanceof ValueConverters.CopyingConverter) {
+            // 缓存不可修改的解析结果，每次复制为新的集合
+            ValueConverters.CopyingConverter copyingConverter = (ValueConverters.CopyingConverter) converter;
+            return copyingConverter.copy(convert(rawValue, copyingConverter.getSource()));
+        }
+
+        if (rawValue == null || !ValueConverters.isCacheable(converter)) {
+            return converter.convert(rawValue);
+        }
+
+        Conversions conversions = cache.get(rawValue);
+        Object value = conversions == null ? null : conversions.get(converter);
+        if (value == null) {
+            value = converter.convert(rawValue);
+            put(rawValue, converter, value == null ? NULL_VALUE : value);
+            return value;
+        }
+
+        return value == NULL_VALUE ? null : value;
+    }
+
+    private void put(String rawValue, ValueConverter converter, Object value) {
+        while (true) {
+            Conversions conversions = cache.get(rawValue);
+            if (conversions == null) {
+                if (cache.putIfAbsent(rawValue, new Conversions(converter, value)) == null) {
+                    return;
+                }
+                continue;
+            }
+
+            if (conversions.get(converter) != null ||
+                    cache.replace(rawValue, conversions, conversions.with(converter, value))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 移除修改前及删除的配置值的转换结果
+     */
+    void evict(ConfigChangeSet<? extends SystemConfig> changeSet) {
+        for (ConfigChangeSet.Modification<? extends SystemConfig> modification : changeSet.getModifiedConfigs()) {
+            evict(modification.getOldConfig().getValue());
+        }
+        for (SystemConfig config : changeSet.getDeletedConfigs()) {
+            evict(config.getValue());
+        }
+    }
+
+    private void evict(String rawValue) {
+        if (rawValue != null) {
+            cache.remove(rawValue);
+        }
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    /**
+     * 同一原始值的转换结果，不可变，通常仅有一个转换器
+     */
+    private static class Conversions {
+
+        private final ValueConverter[] converters;
+        private final Object[] values;
+
+        Conversions(ValueConverter converter, Object value) {
+            this(new ValueConverter[]{converter}, new Object[]{value});
+        }
+
+        private Conversions(ValueConverter[] converters, Object[] values) {
+            this.converters = converters;
+            this.values = values;
+        }
+
+        Object get(ValueConverter converter) {
+            for (int i = 0; i < converters.length; i++) {
+                if (converters[i] == converter) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        Conversions with(ValueConverter converter, Object value) {
+            int length = converters.length;
+            ValueConverter[] newConverters = new ValueConverter[length + 1];
+            Object[] newValues = new Object[length + 1];
+            System.arraycopy(converters, 0, newConverters, 0, length);
+            System.arraycopy(values, 0, newValues, 0, length);
+            newConverters[length] = converter;
+            newValues[length] = value;
+            return new Conversions(newConverters, newValues);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.team4u.config;
+
+import cn.hutool.core.util.ReflectUtil;
+import org.team4u.kit.core.error.ExceptionUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * 配置类字段访问器与实例创建器
+ *
+ * @author Jay.Wu
+ */
+class FieldAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CREATOR_TYPE = MethodType.methodType(Object.class);
+
+    /**
+     * 创建字段访问器，静态字段的句柄无法转换为实例字段的调用类型，使用反射访问
+     */
+    static FieldAccessor createFieldAccessor(Field field, AccessorType accessorType) {
+        field.setAccessible(true);
+
+        if (accessorType == AccessorType.METHOD_HANDLE && !Modifier.isStatic(field.getModifiers())) {
+            try {
+                return new MethodHandleFieldAccessor(
+                        LOOKUP.unreflectGetter(field).asType(GETTER_TYPE),
+                        LOOKUP.unreflectSetter(field).asType(SETTER_TYPE)
+                );
+            } catch (IllegalAccessException e) {
+                // 如final字段无法生成写句柄，退化为反射访问
+            }
+        }
+
+        return new ReflectFieldAccessor(field);
+    }
+
+    /**
+     * 创建实例创建器
+     */
+    static <T> InstanceCreator<T> createInstanceCreator(Class<T> toType, AccessorType accessorType) {
+        Constructor<T> constructor = ReflectUtil.getConstructor(toType);
+        if (constructor == null) {
+            // 无默认构造函数时交由ReflectUtil处理
+            return new ReflectUtilInstanceCreator<T>(toType);
+        }
+
+        constructor.setAccessible(true);
+
+        if (accessorType == AccessorType.METHOD_HANDLE) {
+            try {
+                return new MethodHandleInstanceCreator<T>(LOOKUP.unreflectConstructor(constructor).asType(CREATOR_TYPE));
+            } catch (IllegalAccessException e) {
+                // 退化为反射创建
+            }
+        }
+
+        return new ReflectInstanceCreator<T>(constructor);
+    }
+
+    /**
+     * 字段访问器
+     */
+    interface FieldAccessor {
+
+        Object get(Object target);
+
+        void set(Object target, Object value);
+    }
+
+    /**
+     * 实例创建器
+     */
+    interface InstanceCreator<T> {
+
+        T newInstance();
+    }
+
+    private static class ReflectFieldAccessor implements FieldAccessor {
+
+        private final Field field;
+
+        ReflectFieldAccessor(Field field) {
+            this.field = field;
+        }
+
+        @Override
+        public Object get(Object target) {
+            try {
+                return field.get(target);
+            } catch (IllegalAccessException e) {
+                throw ExceptionUtil.toRuntimeException(e);
+            }
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            try {
+                field.set(target, value);
+            } catch (IllegalAccessException e) {
+                throw ExceptionUtil.toRuntimeException(e);
+            }
+        }
+    }
+
+    private static class MethodHandleFieldAccessor implements FieldAccessor {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        MethodHandleFieldAccessor(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public Object get(Object target) {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw ExceptionUtil.toRuntimeException(e);
+            }
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw ExceptionUtil.toRuntimeException(e);
+            }
+        }
+    }
+
+    private static class ReflectUtilInstanceCreator<T> implements InstanceCreator<T> {
+
+        private final Class<T> toType;
+
+        ReflectUtilInstanceCreator(Class<T> toType) {
+            this.toType = toType;
+        }
+
+        @Override
+        public T newInstance() {
+            return ReflectUtil.newInstance(toType);
+        }
+    }
+
+    private static class ReflectInstanceCreator<T> implements InstanceCreator<T> {
+
+        private final Constructor<T> constructor;
+
+        ReflectInstanceCreator(Constructor<T> constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public T newInstance() {
+            try {
+                return constructor.newInstance();
+            } catch (Exception e) {
+                throw ExceptionUtil.toRuntimeException(e);
+            }
+        }
+    }
+
+    private static class MethodHandleInstanceCreator<T> implements InstanceCreator<T> {
+
+        private final MethodHandle creator;
+
+        MethodHandleInstanceCreator(MethodHandle creator) {
+            this.creator = creator;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance() {
+            try {
+                return (T) (Object) creator.invokeExact();
+            } catch (Throwable e) {
+                throw ExceptionUtil.toRuntimeException(e);
+            }
+        }
+    }
+}
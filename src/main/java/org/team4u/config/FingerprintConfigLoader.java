@@ -0,0 +1,18 @@
+package org.team4u.config;
+
+/**
+ * 支持变化探测的配置加载器
+ * <p>
+ * 通过低成本的指纹探测配置是否变化，指纹不变则无需重新加载和比较配置
+ *
+ * @author Jay.Wu
+ */
+public interface FingerprintConfigLoader<C extends SystemConfig> extends ConfigLoader<C> {
+
+    /**
+     * 获取当前配置指纹
+     *
+     * @return 配置指纹，配置变化时指纹必须改变；返回null表示无法探测，需重新加载
+     */
+    String fingerprint();
+}
@@ -0,0 +1,28 @@
+package org.team4u.config;
+
+/**
+ * 固定间隔刷新策略
+ *
+ * @author Jay.Wu
+ */
+public class FixedRefreshPolicy implements RefreshPolicy {
+
+    private final long intervalMs;
+
+    /**
+     * @param intervalMs 刷新间隔时间（毫秒）
+     */
+    public FixedRefreshPolicy(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+
+    @Override
+    public long initialDelayMs() {
+        return intervalMs;
+    }
+
+    @Override
+    public long nextDelayMs(Result result) {
+        return intervalMs;
+    }
+}
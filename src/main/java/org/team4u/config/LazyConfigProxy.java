@@ -0,0 +1,263 @@
+package org.team4u.config;
+
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.StrUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 延迟绑定的接口配置对象
+ * <p>
+ * 接口的无参方法映射为配置，getXxx与isXxx映射为xxx，其余方法按方法名映射。
+ * 首次调用时才查找并转换配置值，转换结果在配置快照内缓存，配置快照变化后重新转换。
+ * json对象等可修改的转换结果仅在本对象内缓存，不与其他配置对象共享
+ *
+ * @author Jay.Wu
+ */
+class LazyConfigProxy implements InvocationHandler {
+
+    private final AbstractConfigLoader<?> loader;
+    private final Plan plan;
+    private final SnapshotSource snapshotSource;
+
+    /**
+     * 当前配置快照下可修改的转换结果
+     */
+    private volatile OwnedValues ownedValues;
+
+    private LazyConfigProxy(AbstractConfigLoader<?> loader, Plan plan, SnapshotSource snapshotSource) {
+        this.loader = loader;
+        this.plan = plan;
+        this.snapshotSource = snapshotSource;
+    }
+
+    /**
+     * 创建接口配置对象
+     *
+     * @param snapshotSource 配置快照来源，每次调用方法时读取
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T newProxy(AbstractConfigLoader<?> loader, Plan plan, SnapshotSource snapshotSource) {
+        return (T) Proxy.newProxyInstance(plan.getToType().getClassLoader(),
+                new Class<?>[]{plan.getToType()},
+                new LazyConfigProxy(loader, plan, snapshotSource));
+    }
+
+    /**
+     * 创建固定配置快照来源
+     */
+    static SnapshotSource fixed(final ConfigSnapshot<? extends SystemConfig> snapshot) {
+        return new SnapshotSource() {
+            @Override
+            public ConfigSnapshot<? extends SystemConfig> get() {
+                return snapshot;
+            }
+        };
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        Property property = plan.getProperty(method);
+        if (property != null) {
+            return getValue(property, snapshotSource.get());
+        }
+
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+
+        throw new UnsupportedOperationException("Not a config property|method=" + method);
+    }
+
+    private Object getValue(Property property, ConfigSnapshot<? extends SystemConfig> snapshot) {
+        if (property.isShareable()) {
+            return property.getValue(loader, snapshot);
+        }
+
+        OwnedValues values = ownedValues;
+        if (values == null || values.snapshot != snapshot) {
+            values = new OwnedValues(snapshot);
+            ownedValues = values;
+        }
+
+        return values.get(property, loader);
+    }
+
+    private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        if ("equals".equals(name)) {
+            return proxy == args[0];
+        }
+        if ("hashCode".equals(name)) {
+            return System.identityHashCode(proxy);
+        }
+        if ("toString".equals(name)) {
+            return plan.getToType().getName() + "(prefix=" + plan.getPrefix() + ")";
+        }
+
+        throw new UnsupportedOperationException("Not a config property|method=" + method);
+    }
+
+    /**
+     * 同一配置快照下可修改的转换结果
+     */
+    private static class OwnedValues {
+
+        private static final Object NULL_VALUE = new Object();
+
+        private final ConfigSnapshot<? extends SystemConfig> snapshot;
+        private final ConcurrentMap<Property, Object> values = new ConcurrentHashMap<Property, Object>();
+
+        OwnedValues(ConfigSnapshot<? extends SystemConfig> snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        Object get(Property property, AbstractConfigLoader<?> loader) {
+            Object value = values.get(property);
+            if (value == null) {
+                value = property.getValue(loader, snapshot);
+                Object existingValue = values.putIfAbsent(property, value == null ? NULL_VALUE : value);
+                if (existingValue != null) {
+                    value = existingValue;
+                }
+            }
+
+            return value == NULL_VALUE ? null : value;
+        }
+    }
+
+    /**
+     * 配置快照来源
+     */
+    interface SnapshotSource {
+
+        ConfigSnapshot<? extends SystemConfig> get();
+    }
+
+    /**
+     * 接口配置计划，按(接口, 前缀, 忽略字段)预先解析方法对应的配置键与转换器，构建后不可变
+     */
+    static class Plan {
+
+        private final Class<?> toType;
+        private final String prefix;
+        private final Map<Method, Property> properties;
+
+        private Plan(Class<?> toType, String prefix, Map<Method, Property> properties) {
+            this.toType = toType;
+            this.prefix = prefix;
+            this.properties = properties;
+        }
+
+        static Plan compile(Class<?> toType, String prefix, String[] ignoreFields) {
+            Map<Method, Property> properties = new HashMap<Method, Property>();
+            for (Method method : toType.getMethods()) {
+                if (method.getParameterTypes().length > 0 || method.getReturnType() == void.class) {
+                    continue;
+                }
+
+                String propertyName = toPropertyName(method);
+                boolean ignored = ArrayUtil.contains(ignoreFields, propertyName);
+                properties.put(method, new Property(
+                        ignored ? null : ConfigKey.normalized(prefix, propertyName),
+                        createConverter(method),
+                        ClassUtil.getDefaultValue(method.getReturnType())
+                ));
+            }
+
+            return new Plan(toType, prefix, Collections.unmodifiableMap(properties));
+        }
+
+        private static String toPropertyName(Method method) {
+            String name = method.getName();
+            if (name.length() > 3 && name.startsWith("get")) {
+                return StrUtil.removePreAndLowerFirst(name, 3);
+            }
+
+            Class<?> returnType = method.getReturnType();
+            if (name.length() > 2 && name.startsWith("is") && (returnType == boolean.class || returnType == Boolean.class)) {
+                return StrUtil.removePreAndLowerFirst(name, 2);
+            }
+
+            return name;
+        }
+
+        private static ValueConverter createConverter(Method method) {
+            Class<?> returnType = method.getReturnType();
+            if (ClassUtil.isSimpleTypeOrArray(returnType) || !Collection.class.isAssignableFrom(returnType)) {
+                return ValueConverters.forType(returnType);
+            }
+
+            // 集合类型需要获取泛型类型，目前只支持一级泛型
+            Class<?> elementType = String.class;
+            Type genericReturnType = method.getGenericReturnType();
+            if (genericReturnType instanceof ParameterizedType) {
+                Type argument = ((ParameterizedType) genericReturnType).getActualTypeArguments()[0];
+                if (argument instanceof Class) {
+                    elementType = (Class<?>) argument;
+                }
+            }
+            return ValueConverters.forCollection(returnType, elementType);
+        }
+
+        Property getProperty(Method method) {
+            return properties.get(method);
+        }
+
+        Class<?> getToType() {
+            return toType;
+        }
+
+        String getPrefix() {
+            return prefix;
+        }
+    }
+
+    /**
+     * 接口方法对应的配置
+     */
+    static class Property {
+
+        /**
+         * 忽略大小写的配置键，为null则表示忽略该配置
+         */
+        private final ConfigKey lookupKey;
+        private final ValueConverter converter;
+        /**
+         * 配置不存在时的返回值，基本类型为其默认值，其余为null
+         */
+        private final Object defaultValue;
+
+        Property(ConfigKey lookupKey, ValueConverter converter, Object defaultValue) {
+            this.lookupKey = lookupKey;
+            this.converter = converter;
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * 转换结果是否不可修改，可直接使用快照内缓存的结果
+         */
+        boolean isShareable() {
+            return lookupKey == null || ValueConverters.isShareable(converter);
+        }
+
+        Object getValue(AbstractConfigLoader<?> loader, ConfigSnapshot<? extends SystemConfig> snapshot) {
+            if (lookupKey == null) {
+                return defaultValue;
+            }
+
+            return loader.lookup(snapshot, lookupKey, converter, defaultValue);
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package org.team4u.config;
 
-import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.log.Log;
 import cn.hutool.log.LogFactory;
-import org.team4u.kit.core.action.Function;
 import org.team4u.kit.core.error.ExceptionUtil;
-import org.team4u.kit.core.lang.LongTimeThread;
 import org.team4u.kit.core.log.LogMessage;
-import org.team4u.kit.core.util.CollectionExUtil;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 主动拉取缓冲配置加载器
+ * <p>
+ * 配置快照以不可变对象原子发布，读取配置无需加锁。
+ * 定时刷新任务由{@link RefreshScheduler}统一调度，代理配置加载器支持订阅时自动订阅配置源变化。
+ * 每次刷新的配置变更集合异步分发至监听器，监听器不会阻塞刷新。
+ * 代理配置加载器实现{@link ScopedConfigLoader}时，可仅加载已使用的配置组，见{@link #setScopedLoading(boolean)}
  *
  * @author Jay.Wu
  */
@@ -26,19 +36,77 @@ public class PullCacheConfigLoader<C extends SystemConfig> extends AbstractConfi
     private final Log log = LogFactory.get();
 
     /**
-     * 代理配置集合缓存
+     * 代理配置快照缓存
      */
-    private List<C> configCache;
+    private final AtomicReference<ConfigSnapshot<C>> configCache = new AtomicReference<ConfigSnapshot<C>>();
     /**
-     * 配置类代理映射
+     * 最近一次加载时的配置指纹
      */
-    private Map<String, ProxyCache> toTypeProxies = new HashMap<String, ProxyCache>();
+    private volatile String configFingerprint;
+    /**
+     * 配置类代理映射，同一配置类按前缀与模式区分
+     */
+    private final ConcurrentMap<Class<?>, ProxyCache[]> toTypeProxies = new ConcurrentHashMap<Class<?>, ProxyCache[]>();
+    /**
+     * 最新配置快照来源，供接口配置对象使用
+     */
+    private final LazyConfigProxy.SnapshotSource latestSnapshotSource = new LazyConfigProxy.SnapshotSource() {
+        @Override
+        public ConfigSnapshot<? extends SystemConfig> get() {
+            return loadSnapshot();
+        }
+    };
+    /**
+     * 刷新锁，保证同一时间仅有一个刷新任务
+     */
+    private final Object refreshLock = new Object();
+    /**
+     * 是否按已使用的配置组加载
+     */
+    private volatile boolean scopedLoading;
+    /**
+     * 已使用的配置组，统一转为小写，为null则加载所有配置组
+     */
+    private volatile Set<String> scope;
+    /**
+     * 代理配置加载器的加载范围，即已使用的配置组原值，由refreshLock保护
+     */
+    private Set<String> scopeTypes;
+
+    /**
+     * 集合与json配置值的转换缓存，配置变化时按旧值移除
+     */
+    private final ConversionCache conversionCache = new ConversionCache();
+    /**
+     * 配置变更分发器
+     */
+    private final ConfigChangeDispatcher<C> dispatcher = new ConfigChangeDispatcher<C>();
 
     private ConfigLoader<C> delegateConfigLoader;
-    private int refreshIntervalMs;
+    private RefreshPolicy refreshPolicy;
     private Watcher<C> watcher;
 
-    private RefreshWorker refreshWorker = new RefreshWorker();
+    /**
+     * 是否有待执行的订阅刷新任务，用于合并连续的变化通知
+     */
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final ChangeListener changeListener = new ChangeListener() {
+        @Override
+        public void onChange() {
+            if (refreshPending.compareAndSet(false, true)) {
+                RefreshScheduler.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        refreshPending.set(false);
+                        loadAndDiffConfigs();
+                    }
+                });
+            }
+        }
+    };
+
+    private volatile ScheduledFuture<?> refreshFuture;
+    private volatile boolean closed;
 
     /**
      * @param delegateConfigLoader 代理配置加载器
@@ -50,221 +118,604 @@ public class PullCacheConfigLoader<C extends SystemConfig> extends AbstractConfi
 
     /**
      * @param delegateConfigLoader 代理配置加载器
-     * @param refreshIntervalMs    缓存刷新间隔时间（毫秒），0则不开启刷新
+     * @param refreshIntervalMs    缓存刷新间隔时间（毫秒），0则不开启定时刷新
      * @param watcher              配置变动观察者
      */
     public PullCacheConfigLoader(ConfigLoader<C> delegateConfigLoader, int refreshIntervalMs, Watcher<C> watcher) {
+        this(delegateConfigLoader, refreshIntervalMs > 0 ? new FixedRefreshPolicy(refreshIntervalMs) : null, watcher);
+    }
+
+    /**
+     * @param delegateConfigLoader 代理配置加载器
+     * @param refreshPolicy        刷新策略，为null则不开启定时刷新
+     */
+    public PullCacheConfigLoader(ConfigLoader<C> delegateConfigLoader, RefreshPolicy refreshPolicy) {
+        this(delegateConfigLoader, refreshPolicy, new DefaultWatcher<C>());
+    }
+
+    /**
+     * @param delegateConfigLoader 代理配置加载器
+     * @param refreshPolicy        刷新策略，为null则不开启定时刷新，策略实例不可在多个加载器之间共享
+     * @param watcher              配置变动观察者，通过{@link WatcherAdapter}异步接收配置变化，同步接收刷新错误
+     */
+    public PullCacheConfigLoader(ConfigLoader<C> delegateConfigLoader, RefreshPolicy refreshPolicy, Watcher<C> watcher) {
         this.delegateConfigLoader = delegateConfigLoader;
         this.watcher = watcher;
-        this.refreshIntervalMs = refreshIntervalMs;
+        this.refreshPolicy = refreshPolicy;
+
+        if (watcher != null) {
+            dispatcher.addListener(new WatcherAdapter<C>(watcher));
+        }
+
+        if (delegateConfigLoader instanceof SubscribableConfigLoader) {
+            ((SubscribableConfigLoader<C>) delegateConfigLoader).subscribe(changeListener);
+        }
 
-        if (refreshIntervalMs > 0) {
-            refreshWorker.start();
+        if (refreshPolicy != null) {
+            scheduleRefresh(refreshPolicy.initialDelayMs());
         }
     }
 
     @Override
     public List<C> load() {
-        return configCache;
+        ConfigSnapshot<C> snapshot = configCache.get();
+        return snapshot == null ? null : snapshot.getConfigs();
+    }
+
+    @Override
+    protected ConfigSnapshot<C> loadSnapshot() {
+        ConfigSnapshot<C> snapshot = configCache.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        if (scopedLoading) {
+            // 与扩大加载范围串行执行，保证首次加载使用最新的加载范围
+            synchronized (refreshLock) {
+                return firstLoad();
+            }
+        }
+
+        return firstLoad();
+    }
+
+    @Override
+    protected ConfigSnapshot<C> loadSnapshot(String type) {
+        ensureScope(type);
+        return loadSnapshot();
+    }
+
+    /**
+     * 首次加载，并发时仅保留最先发布的快照
+     */
+    private ConfigSnapshot<C> firstLoad() {
+        ConfigSnapshot<C> snapshot = configCache.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        String fingerprint = queryFingerprint();
+        snapshot = new ConfigSnapshot<C>(delegateConfigLoader.load());
+        if (configCache.compareAndSet(null, snapshot)) {
+            configFingerprint = fingerprint;
+            return snapshot;
+        }
+
+        return configCache.get();
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> T to(Class<T> toType, String prefix, String[] ignoreFields) {
-        LogMessage lm = new LogMessage(this.getClass().getSimpleName(), "to")
-                .append("toType", toType.getName());
-        String key = toType.getName() + "_" + prefix;
+        return (T) getProxyCache(toType, prefix, ignoreFields, false).getProxy();
+    }
 
+    /**
+     * 转换为配置持有者，无前缀或者使用ConfigurationProperties注解
+     *
+     * @see #toHolder(Class, String, String[])
+     */
+    public <T> ConfigHolder<T> toHolder(Class<T> toType) {
+        return toHolder(toType, parsePrefixAnnotation(toType), parseIgnoreFieldsAnnotation(toType));
+    }
+
+    /**
+     * 转换为配置持有者，指定前缀
+     *
+     * @see #toHolder(Class, String, String[])
+     */
+    public <T> ConfigHolder<T> toHolder(Class<T> toType, String prefix) {
+        return toHolder(toType, prefix, parseIgnoreFieldsAnnotation(toType));
+    }
+
+    /**
+     * 转换为配置持有者，指定前缀
+     * <p>
+     * 与{@link #to(Class, String, String[])}逐个字段更新同一配置对象不同，
+     * 配置变化时将创建新的配置对象并整体替换，读取方不会读到部分更新的配置
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ConfigHolder<T> toHolder(Class<T> toType, String prefix, String[] ignoreFields) {
+        return (ConfigHolder<T>) getProxyCache(toType, prefix, ignoreFields, true).getProxy();
+    }
+
+    /**
+     * 获取配置对象缓存，不存在则创建
+     * <p>
+     * 缓存命中时仅按配置类查找一次，不创建任何对象
+     *
+     * @param holder 是否为配置持有者模式
+     */
+    private ProxyCache getProxyCache(Class<?> toType, String prefix, String[] ignoreFields, boolean holder) {
         // 从缓存读取配置对象
-        if (toTypeProxies.containsKey(key)) {
-            log.debug(lm.success().append("mode", "cache").toString());
-            return (T) toTypeProxies.get(key).getProxy();
+        ProxyCache proxyCache = findProxyCache(toTypeProxies.get(toType), prefix, holder);
+        if (proxyCache != null) {
+            if (log.isDebugEnabled()) {
+                log.debug(newToLogMessage(toType, holder).success().append("mode", "cache").toString());
+            }
+            return proxyCache;
         }
 
-        synchronized (this) {
-            if (!toTypeProxies.containsKey(key)) {
-                try {
-                    // 创建配置对象并缓存
-                    configCache = delegateConfigLoader.load();
-                    T proxy = super.to(toType, prefix, ignoreFields);
-                    toTypeProxies.put(key, new ProxyCache(prefix, toType, proxy, ignoreFields));
-                    log.info(lm.success().append("mode", "new").toString());
-                    return proxy;
-                } catch (Exception e) {
-                    log.error(e, lm.fail().append("mode", "new").toString());
-                    throw ExceptionUtil.toRuntimeException(e);
+        LogMessage lm = newToLogMessage(toType, holder);
+        try {
+            // 基于当前配置快照创建配置对象，并发创建时仅保留最先缓存的配置对象
+            ConfigSnapshot<C> snapshot = loadSnapshot(prefix);
+            // 接口配置对象总是读取最新快照，无需刷新
+            Object proxy = toType.isInterface() && !holder ?
+                    newLazyProxy(toType, prefix, ignoreFields, latestSnapshotSource) :
+                    to(snapshot, toType, prefix, ignoreFields);
+            proxyCache = holder ?
+                    new ProxyCache(prefix, toType, new ConfigHolder<Object>(proxy), ignoreFields, true) :
+                    new ProxyCache(prefix, toType, proxy, ignoreFields, false);
+
+            ProxyCache existingProxyCache = putProxyCacheIfAbsent(proxyCache);
+            if (existingProxyCache != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug(lm.success().append("mode", "cache").toString());
                 }
-            } else {
-                log.debug(lm.success().append("mode", "cache").toString());
-                return (T) toTypeProxies.get(key).getProxy();
+                return existingProxyCache;
             }
+
+            // 创建期间配置已刷新，需以最新快照更新配置对象
+            if (configCache.get() != snapshot && !isLive(proxyCache)) {
+                refreshProxy(proxyCache);
+            }
+
+            log.info(lm.success().append("mode", "new").toString());
+            return proxyCache;
+        } catch (Exception e) {
+            log.error(e, lm.fail().append("mode", "new").toString());
+            throw ExceptionUtil.toRuntimeException(e);
         }
     }
 
-    @Override
-    public void close() throws IOException {
-        refreshWorker.close();
-        delegateConfigLoader.close();
+    private LogMessage newToLogMessage(Class<?> toType, boolean holder) {
+        return new LogMessage(this.getClass().getSimpleName(), holder ? "toHolder" : "to")
+                .append("toType", toType.getName());
     }
 
     /**
-     * 加载并比较更新配置
+     * 在同一配置类的配置对象缓存中查找前缀及模式相同的缓存
      */
-    private void loadAndDiffConfigs() {
-        try {
-            List<C> oldConfigs = configCache;
-            configCache = delegateConfigLoader.load();
-            // 若最新配置存在变化，则更新缓存的配置对象字段值
-            if (diffConfigs(oldConfigs, configCache)) {
-                for (ProxyCache proxyCache : toTypeProxies.values()) {
-                    BeanUtil.copyProperties(
-                            delegateConfigLoader.to(
-                                    proxyCache.getTargetClass(),
-                                    proxyCache.getPrefix(),
-                                    proxyCache.getIgnoreFields()
-                            ),
-                            proxyCache.getProxy(),
-                            proxyCache.ignoreFields
-                    );
+    private ProxyCache findProxyCache(ProxyCache[] proxyCaches, String prefix, boolean holder) {
+        if (proxyCaches == null) {
+            return null;
+        }
+
+        for (ProxyCache proxyCache : proxyCaches) {
+            if (proxyCache.isHolder() == holder && StrUtil.equals(proxyCache.getPrefix(), prefix)) {
+                return proxyCache;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 缓存配置对象，同一配置类的缓存数组写时复制
+     *
+     * @return 已存在的配置对象缓存，不存在则返回null
+     */
+    private ProxyCache putProxyCacheIfAbsent(ProxyCache proxyCache) {
+        Class<?> toType = proxyCache.getTargetClass();
+
+        while (true) {
+            ProxyCache[] proxyCaches = toTypeProxies.get(toType);
+            if (proxyCaches == null) {
+                if (toTypeProxies.putIfAbsent(toType, new ProxyCache[]{proxyCache}) == null) {
+                    return null;
                 }
+                continue;
+            }
+
+            ProxyCache existingProxyCache = findProxyCache(proxyCaches, proxyCache.getPrefix(), proxyCache.isHolder());
+            if (existingProxyCache != null) {
+                return existingProxyCache;
+            }
+
+            ProxyCache[] newProxyCaches = Arrays.copyOf(proxyCaches, proxyCaches.length + 1);
+            newProxyCaches[proxyCaches.length] = proxyCache;
+            if (toTypeProxies.replace(toType, proxyCaches, newProxyCaches)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 添加配置变更监听器，每次刷新产生变化时异步接收一个配置变更集合
+     */
+    public PullCacheConfigLoader<C> addListener(ConfigChangeListener<C> listener) {
+        dispatcher.addListener(listener);
+        return this;
+    }
+
+    /**
+     * 添加配置变更监听器，仅接收指定配置组的变化，忽略大小写
+     */
+    public PullCacheConfigLoader<C> addListener(String type, ConfigChangeListener<C> listener) {
+        ensureScope(type);
+        dispatcher.addListener(type, listener);
+        return this;
+    }
+
+    /**
+     * 添加配置变更监听器，仅接收指定配置的变化，忽略大小写
+     */
+    public PullCacheConfigLoader<C> addListener(String type, String name, ConfigChangeListener<C> listener) {
+        ensureScope(type);
+        dispatcher.addListener(type, name, listener);
+        return this;
+    }
+
+    /**
+     * 添加配置变更监听器，仅接收配置类绑定的配置组的变化，配置组为ConfigurationProperties注解的前缀
+     *
+     * @throws IllegalArgumentException 配置类未声明ConfigurationProperties注解的前缀
+     */
+    public PullCacheConfigLoader<C> addListener(Class<?> configClass, ConfigChangeListener<C> listener) {
+        String prefix = parsePrefixAnnotation(configClass);
+        if (prefix == null) {
+            throw new IllegalArgumentException("Config class has no ConfigurationProperties prefix|class=" +
+                    configClass.getName());
+        }
+
+        return addListener(prefix, listener);
+    }
+
+    /**
+     * 移除配置变更监听器的所有订阅
+     */
+    public boolean removeListener(ConfigChangeListener<C> listener) {
+        return dispatcher.removeListener(listener);
+    }
+
+    /**
+     * 设置监听器执行器，默认为共享的守护线程池
+     */
+    public PullCacheConfigLoader<C> setListenerExecutor(Executor executor) {
+        dispatcher.setExecutor(executor);
+        return this;
+    }
+
+    /**
+     * 设置每个监听器的变更队列容量，仅对之后添加的监听器生效，队列已满时丢弃新的变更集合
+     */
+    public PullCacheConfigLoader<C> setListenerQueueCapacity(int queueCapacity) {
+        dispatcher.setQueueCapacity(queueCapacity);
+        return this;
+    }
+
+    /**
+     * 设置是否仅加载已使用的配置组，需在首次加载前设置，且代理配置加载器需实现{@link ScopedConfigLoader}
+     * <p>
+     * 开启后仅加载已绑定配置对象（前缀即配置组）、读取过单个配置或添加过配置组监听器的配置组，
+     * 使用新的配置组时扩大加载范围并立即重新加载，新纳入范围的配置不作为新增配置通知监听器。
+     * 使用无前缀的配置类或空配置组时将加载所有配置组。{@link #load()}仅返回加载范围内的配置
+     */
+    @SuppressWarnings("unchecked")
+    public PullCacheConfigLoader<C> setScopedLoading(boolean scopedLoading) {
+        if (!(delegateConfigLoader instanceof ScopedConfigLoader)) {
+            throw new IllegalStateException("Delegate config loader does not support scoped loading");
+        }
+
+        synchronized (refreshLock) {
+            if (configCache.get() != null) {
+                throw new IllegalStateException("Scoped loading must be set before the first load");
             }
-        } catch (Throwable e) {
-            watcher.onError(e);
+
+            scope = scopedLoading ? Collections.<String>emptySet() : null;
+            scopeTypes = scope;
+            ((ScopedConfigLoader<C>) delegateConfigLoader).setScope(scopeTypes);
+            this.scopedLoading = scopedLoading;
         }
+        return this;
     }
 
     /**
-     * 比较配置是否变化
+     * 将配置组加入加载范围，首次加载后扩大范围时立即重新加载
+     * <p>
+     * 已使用的配置组忽略大小写，代理配置加载器按首次使用时的原值加载，以便数据库等配置源利用配置组索引
      */
-    private boolean diffConfigs(List<C> oldConfigs, List<C> newConfigs) {
-        // 若无缓存配置则表示初次初始化，无需比较
-        //noinspection SimplifiableIfStatement
-        if (oldConfigs == null) {
-            return true;
+    @SuppressWarnings("unchecked")
+    private void ensureScope(String rawType) {
+        String type = ConfigKey.normalize(rawType);
+        Set<String> oldScope = scope;
+        if (!scopedLoading || oldScope == null || oldScope.contains(type)) {
+            return;
+        }
+
+        synchronized (refreshLock) {
+            oldScope = scope;
+            if (oldScope == null || oldScope.contains(type)) {
+                return;
+            }
+
+            Set<String> newScope = null;
+            Set<String> newScopeTypes = null;
+            if (StrUtil.isNotEmpty(type)) {
+                newScope = new HashSet<String>(oldScope);
+                newScope.add(type);
+                newScope = Collections.unmodifiableSet(newScope);
+
+                newScopeTypes = new LinkedHashSet<String>(scopeTypes);
+                newScopeTypes.add(rawType);
+                newScopeTypes = Collections.unmodifiableSet(newScopeTypes);
+            }
+
+            ((ScopedConfigLoader<C>) delegateConfigLoader).setScope(newScopeTypes);
+            scope = newScope;
+            scopeTypes = newScopeTypes;
+
+            log.info(new LogMessage(this.getClass().getSimpleName(), "ensureScope")
+                    .success()
+                    .append("type", rawType)
+                    .append("scope", newScopeTypes)
+                    .toString());
+
+            if (configCache.get() != null) {
+                loadAndDiffConfigs(oldScope);
+            }
         }
+    }
 
-        boolean hasCreatedConfigs = diffCreatedConfigs(oldConfigs, newConfigs);
-        boolean hasDeletedConfigs = diffDeletedConfigs(oldConfigs, newConfigs);
-        boolean hasModifyConfigs = diffModifyConfigs(oldConfigs, newConfigs);
+    @Override
+    public void close() throws IOException {
+        closed = true;
+
+        ScheduledFuture<?> future = refreshFuture;
+        if (future != null) {
+            future.cancel(false);
+        }
+
+        if (delegateConfigLoader instanceof SubscribableConfigLoader) {
+            ((SubscribableConfigLoader<C>) delegateConfigLoader).unsubscribe(changeListener);
+        }
 
-        return hasCreatedConfigs || hasDeletedConfigs || hasModifyConfigs;
+        delegateConfigLoader.close();
     }
 
     /**
-     * 比较配置是否新增
+     * 在共享调度器上安排下一次定时刷新，每次刷新完成后按刷新策略安排下一次，同一加载器的刷新不会重叠
      */
-    private boolean diffCreatedConfigs(List<C> oldConfigs, List<C> newConfigs) {
-        boolean hasCreatedConfig = false;
+    private void scheduleRefresh(long delayMs) {
+        if (closed) {
+            return;
+        }
 
-        for (final C newConfig : newConfigs) {
-            if (!CollectionExUtil.any(oldConfigs, new Function<C, Boolean>() {
-                @Override
-                public Boolean invoke(C oldConfig) {
-                    return oldConfig.getName().equals(newConfig.getName()) &&
-                            oldConfig.getType().equals(newConfig.getType());
+        refreshFuture = RefreshScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (closed) {
+                    return;
                 }
-            })) {
-                hasCreatedConfig = true;
 
-                log.info(new LogMessage(this.getClass().getSimpleName(), "diffCreatedConfigs")
-                        .success()
-                        .append("newConfig", newConfig)
-                        .toString());
-
-                if (watcher != null) {
-                    watcher.onCreate(newConfig);
+                RefreshPolicy.Result result = RefreshPolicy.Result.FAILED;
+                try {
+                    result = loadAndDiffConfigs();
+                } finally {
+                    scheduleRefresh(refreshPolicy.nextDelayMs(result));
                 }
             }
-        }
+        }, delayMs);
+    }
 
-        return hasCreatedConfig;
+    /**
+     * 立即加载并比较更新配置，开启定时刷新或配置源变化时将自动调用
+     */
+    public void refresh() {
+        loadAndDiffConfigs();
+    }
+
+    private RefreshPolicy.Result loadAndDiffConfigs() {
+        return loadAndDiffConfigs(null);
     }
 
     /**
-     * 比较配置是否删除
+     * 加载并比较更新配置
+     *
+     * @param oldScope 扩大加载范围前的加载范围，不为null时总是重新加载，且忽略新纳入范围的新增配置
+     * @return 刷新结果
      */
-    private boolean diffDeletedConfigs(List<C> oldConfigs, List<C> newConfigs) {
-        boolean hasDeletedConfig = false;
+    private RefreshPolicy.Result loadAndDiffConfigs(Set<String> oldScope) {
+        synchronized (refreshLock) {
+            try {
+                // 配置指纹未变化则无需加载和比较
+                String fingerprint = queryFingerprint();
+                if (oldScope == null && fingerprint != null && fingerprint.equals(configFingerprint)) {
+                    return RefreshPolicy.Result.UNCHANGED;
+                }
 
-        for (final C oldConfig : oldConfigs) {
-            if (!CollectionExUtil.any(newConfigs, new Function<C, Boolean>() {
-                @Override
-                public Boolean invoke(C newConfig) {
-                    return oldConfig.getName().equals(newConfig.getName()) &&
-                            oldConfig.getType().equals(newConfig.getType());
+                // 复用未变化的配置对象，稳定状态下刷新后仅保留旧配置对象
+                ConfigSnapshot<C> oldConfigs = configCache.get();
+                List<C> configs = delegateConfigLoader.load();
+                ConfigSnapshot<C> newConfigs = new ConfigSnapshot<C>(
+                        oldConfigs == null ? configs : oldConfigs.reuseUnchanged(configs));
+                if (!configCache.compareAndSet(oldConfigs, newConfigs)) {
+                    // 期间首次加载已发布快照，以其为旧快照比较
+                    oldConfigs = configCache.getAndSet(newConfigs);
                 }
-            })) {
-                hasDeletedConfig = true;
+                configFingerprint = fingerprint;
 
-                log.info(new LogMessage(this.getClass().getSimpleName(), "diffDeletedConfigs")
-                        .success()
-                        .append("oldConfig", oldConfig)
-                        .toString());
+                // 若无缓存配置则表示初次初始化，无需比较
+                if (oldConfigs == null) {
+                    refreshProxies(null);
+                    return RefreshPolicy.Result.CHANGED;
+                }
 
+                ConfigChangeSet<C> changeSet = ConfigDiffer.diff(oldConfigs, newConfigs);
+                if (oldScope != null) {
+                    changeSet = excludeNewScope(changeSet, oldScope);
+                }
+                if (changeSet.isEmpty()) {
+                    return RefreshPolicy.Result.UNCHANGED;
+                }
+
+                logChangeSet(changeSet);
+                conversionCache.evict(changeSet);
+                // 仅更新配置组发生变化的配置对象字段值
+                refreshProxies(changeSet);
+                // 配置对象更新后再通知监听器，监听器可读取到最新配置
+                dispatcher.dispatch(changeSet);
+                return RefreshPolicy.Result.CHANGED;
+            } catch (Throwable e) {
                 if (watcher != null) {
-                    watcher.onDelete(oldConfig);
+                    watcher.onError(e);
+                } else {
+                    log.error(e, new LogMessage(this.getClass().getSimpleName(), "refresh").fail().toString());
                 }
+                return RefreshPolicy.Result.FAILED;
             }
         }
-
-        return hasDeletedConfig;
     }
 
     /**
-     * 比较配置是否修改
+     * 排除因扩大加载范围而新纳入的配置，这些配置此前并未加载，而非新增配置
      */
-    private boolean diffModifyConfigs(List<C> oldConfigs, List<C> newConfigs) {
-        boolean hasModifiedConfig = false;
+    private ConfigChangeSet<C> excludeNewScope(ConfigChangeSet<C> changeSet, Set<String> oldScope) {
+        List<C> createdConfigs = new ArrayList<C>();
+        for (C config : changeSet.getCreatedConfigs()) {
+            if (oldScope.contains(ConfigKey.normalize(config.getType()))) {
+                createdConfigs.add(config);
+            }
+        }
 
-        for (C oldConfig : oldConfigs) {
-            for (C newConfig : newConfigs) {
-                if (oldConfig.equals(newConfig)) {
-                    if (!StrUtil.equals(oldConfig.getValue(), newConfig.getValue()) ||
-                            !StrUtil.equals(oldConfig.getDescription(), newConfig.getDescription()) ||
-                            oldConfig.getSequenceNo() != newConfig.getSequenceNo() ||
-                            oldConfig.getEnabled() != newConfig.getEnabled()) {
-                        hasModifiedConfig = true;
+        return new ConfigChangeSet<C>(createdConfigs, changeSet.getModifiedConfigs(), changeSet.getDeletedConfigs());
+    }
 
-                        log.info(new LogMessage(this.getClass().getSimpleName(), "diffModifyConfigs")
-                                .success()
-                                .append("oldConfig", oldConfig)
-                                .append("newConfig", newConfig)
-                                .toString());
+    @Override
+    ConversionCache getConversionCache() {
+        return conversionCache;
+    }
 
-                        if (watcher != null) {
-                            watcher.onModify(newConfig);
-                        }
-                    }
+    /**
+     * 探测代理配置加载器的配置指纹，须在加载配置之前调用，以免遗漏加载期间的变化
+     *
+     * @return 配置指纹，不支持探测则返回null
+     */
+    private String queryFingerprint() {
+        if (delegateConfigLoader instanceof FingerprintConfigLoader) {
+            return ((FingerprintConfigLoader<?>) delegateConfigLoader).fingerprint();
+        }
+
+        return null;
+    }
+
+    /**
+     * 使用最新配置快照更新缓存的配置对象字段值
+     *
+     * @param changeSet 配置变更集合，为null则更新所有配置对象
+     */
+    private void refreshProxies(ConfigChangeSet<C> changeSet) {
+        for (ProxyCache[] proxyCaches : toTypeProxies.values()) {
+            for (ProxyCache proxyCache : proxyCaches) {
+                if (isLive(proxyCache) ||
+                        (changeSet != null && !changeSet.isTypeChanged(proxyCache.getPrefix()))) {
+                    continue;
                 }
+
+                refreshProxy(proxyCache);
             }
         }
+    }
 
-        return hasModifiedConfig;
+    /**
+     * 是否为总是读取最新快照的接口配置对象
+     */
+    private boolean isLive(ProxyCache proxyCache) {
+        return !proxyCache.isHolder() && proxyCache.getTargetClass().isInterface();
     }
 
     /**
-     * 缓存更新器
+     * 使用最新配置快照更新配置对象
+     * <p>
+     * 配置持有者模式整体替换配置对象，否则逐个复制字段值至原配置对象
      */
-    private class RefreshWorker extends LongTimeThread {
+    @SuppressWarnings("unchecked")
+    private void refreshProxy(ProxyCache proxyCache) {
+        // 同一配置对象的更新串行执行，且总是读取最新快照，保证最后一次更新的结果为最新配置
+        synchronized (proxyCache) {
+            Object newConfig = to(configCache.get(),
+                    proxyCache.getTargetClass(),
+                    proxyCache.getPrefix(),
+                    proxyCache.getIgnoreFields()
+            );
+
+            if (proxyCache.isHolder()) {
+                ((ConfigHolder<Object>) proxyCache.getProxy()).set(newConfig);
+                return;
+            }
 
-        @Override
-        protected void onRun() {
-            ThreadUtil.safeSleep(refreshIntervalMs);
-            loadAndDiffConfigs();
+            getBindingPlan(proxyCache.getTargetClass(), proxyCache.getPrefix(), proxyCache.getIgnoreFields())
+                    .copy(newConfig, proxyCache.getProxy());
         }
     }
 
-    private static class ProxyCache {
-        private String prefix;
-        private Class targetClass;
-        private Object proxy;
-        private String[] ignoreFields;
+    /**
+     * 记录配置变更
+     */
+    private void logChangeSet(ConfigChangeSet<C> changeSet) {
+        for (C newConfig : changeSet.getCreatedConfigs()) {
+            log.info(new LogMessage(this.getClass().getSimpleName(), "diffCreatedConfigs")
+                    .success()
+                    .append("newConfig", newConfig)
+                    .toString());
+
+        }
+
+        for (C oldConfig : changeSet.getDeletedConfigs()) {
+            log.info(new LogMessage(this.getClass().getSimpleName(), "diffDeletedConfigs")
+                    .success()
+                    .append("oldConfig", oldConfig)
+                    .toString());
+
+        }
 
-        public ProxyCache(String prefix, Class targetClass, Object proxy, String[] ignoreFields) {
+        for (ConfigChangeSet.Modification<C> modification : changeSet.getModifiedConfigs()) {
+            log.info(new LogMessage(this.getClass().getSimpleName(), "diffModifyConfigs")
+                    .success()
+                    .append("oldConfig", modification.getOldConfig())
+                    .append("newConfig", modification.getNewConfig())
+                    .toString());
+
+        }
+    }
+
+    private static class ProxyCache {
+        private final String prefix;
+        private final Class targetClass;
+        private final Object proxy;
+        private final String[] ignoreFields;
+        /**
+         * 是否为配置持有者模式，是则proxy为ConfigHolder
+         */
+        private final boolean holder;
+
+        public ProxyCache(String prefix, Class targetClass, Object proxy, String[] ignoreFields, boolean holder) {
             this.prefix = prefix;
             this.targetClass = targetClass;
             this.proxy = proxy;
             this.ignoreFields = ignoreFields;
+            this.holder = holder;
         }
 
         public String getPrefix() {
@@ -283,9 +734,8 @@ public class PullCacheConfigLoader<C extends SystemConfig> extends AbstractConfi
             return ignoreFields;
         }
 
-        public ProxyCache setIgnoreFields(String[] ignoreFields) {
-            this.ignoreFields = ignoreFields;
-            return this;
+        public boolean isHolder() {
+            return holder;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package org.team4u.config;
+
+/**
+ * 刷新策略，决定定时刷新的间隔时间
+ * <p>
+ * 同一加载器的刷新串行执行，策略实例可保存状态，但不应在多个加载器之间共享
+ *
+ * @author Jay.Wu
+ */
+public interface RefreshPolicy {
+
+    /**
+     * 首次刷新的延迟时间（毫秒）
+     */
+    long initialDelayMs();
+
+    /**
+     * 下一次刷新的延迟时间（毫秒）
+     *
+     * @param result 本次刷新结果
+     */
+    long nextDelayMs(Result result);
+
+    /**
+     * 刷新结果
+     */
+    enum Result {
+        /**
+         * 配置发生变化
+         */
+        CHANGED,
+        /**
+         * 配置未变化
+         */
+        UNCHANGED,
+        /**
+         * 刷新失败
+         */
+        FAILED
+    }
+}
@@ -0,0 +1,53 @@
+package org.team4u.config;
+
+import cn.hutool.core.thread.ThreadUtil;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享刷新调度器
+ * <p>
+ * 所有配置加载器的刷新任务共用少量守护线程，线程数不随加载器数量增长，
+ * 线程数可通过系统属性simple-config.refresh.threads指定，默认为2
+ *
+ * @author Jay.Wu
+ */
+public final class RefreshScheduler {
+
+    private static final int THREADS = Integer.getInteger("simple-config.refresh.threads", 2);
+
+    private static final ScheduledExecutorService EXECUTOR = newExecutor();
+
+    private RefreshScheduler() {
+    }
+
+    private static ScheduledExecutorService newExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(THREADS,
+                ThreadUtil.newNamedThreadFactory("simple-config-refresh-", true));
+        // 取消的任务立即移除，避免关闭的加载器滞留在队列中
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * 延迟执行一次任务
+     *
+     * @param task    任务，需自行处理异常
+     * @param delayMs 延迟时间（毫秒）
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delayMs) {
+        return EXECUTOR.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 立即异步执行任务
+     *
+     * @param task 任务，需自行处理异常
+     */
+    public static void execute(Runnable task) {
+        EXECUTOR.execute(task);
+    }
+}
@@ -0,0 +1,21 @@
+package org.team4u.config;
+
+import java.util.Set;
+
+/**
+ * 支持按配置组加载的配置加载器
+ * <p>
+ * 配置源较大而实际使用的配置组较少时，仅加载指定配置组的配置
+ *
+ * @author Jay.Wu
+ */
+public interface ScopedConfigLoader<C extends SystemConfig> extends ConfigLoader<C> {
+
+    /**
+     * 设置加载范围，之后的加载与指纹探测仅包含指定配置组，配置组为调用方使用的原值，
+     * 加载器可按配置源自身的规则（如数据库排序规则）决定是否忽略大小写
+     *
+     * @param types 配置组集合，为null则加载所有配置组，为空集合则不加载任何配置
+     */
+    void setScope(Set<String> types);
+}
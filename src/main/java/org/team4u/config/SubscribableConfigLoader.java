@@ -0,0 +1,21 @@
+package org.team4u.config;
+
+/**
+ * 支持订阅变化的配置加载器
+ * <p>
+ * 配置源变化时主动通知订阅者，订阅者无需定时拉取配置
+ *
+ * @author Jay.Wu
+ */
+public interface SubscribableConfigLoader<C extends SystemConfig> extends ConfigLoader<C> {
+
+    /**
+     * 订阅配置源变化
+     */
+    void subscribe(ChangeListener listener);
+
+    /**
+     * 取消订阅配置源变化
+     */
+    void unsubscribe(ChangeListener listener);
+}
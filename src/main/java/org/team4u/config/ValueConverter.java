@@ -0,0 +1,11 @@
+package org.team4u.config;
+
+/**
+ * 配置值转换器
+ *
+ * @author Jay.Wu
+ */
+interface ValueConverter {
+
+    Object convert(String value);
+}
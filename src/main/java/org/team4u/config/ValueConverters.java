@@ -0,0 +1,355 @@
+package org.team4u.config;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson.JSON;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置值转换器工厂
+ * <p>
+ * 简单类型使用Convert转换，集合类型按逗号拆分后转换元素，其余类型按json格式解析。
+ * 同一类型的转换器仅创建一次，可作为转换结果缓存的键。
+ * 不可变类型的转换结果可共享，见{@link #isShareable(ValueConverter)}。
+ * 单个配置读取与接口配置对象中声明为List、Set或Collection的集合转换为不可修改的集合，元素不可变时转换结果可共享，
+ * 其转换器可通过{@link #isCacheable(ValueConverter)}识别，转换结果可跨快照缓存；
+ * 配置类的集合字段每次绑定为新的可修改集合，见{@link #forMutableCollection(Class, Class)}，json对象每次重新转换
+ *
+ * @author Jay.Wu
+ */
+final class ValueConverters {
+
+    /**
+     * 字符串转换器，直接返回原值
+     */
+    static final ValueConverter STRING = new SharedConverter() {
+        @Override
+        public Object convert(String value) {
+            return value;
+        }
+    };
+
+    /**
+     * 时长转换器，转换为毫秒，见{@link #parseDuration(String)}
+     */
+    static final ValueConverter DURATION = new SharedConverter() {
+        @Override
+        public Object convert(String value) {
+            return parseDuration(value);
+        }
+    };
+
+    private static final ClassValue<ValueConverter> TYPE_CONVERTERS = new ClassValue<ValueConverter>() {
+        @Override
+        protected ValueConverter computeValue(Class<?> type) {
+            return createConverter(type);
+        }
+    };
+
+    private static final ClassValue<ValueConverter> LIST_CONVERTERS = new ClassValue<ValueConverter>() {
+        @Override
+        protected ValueConverter computeValue(final Class<?> elementType) {
+            if (isImmutableType(elementType)) {
+                return new CacheableConverter() {
+                    @Override
+                    public Object convert(String value) {
+                        return toUnmodifiableList(elementType, value);
+                    }
+                };
+            }
+
+            return new ValueConverter() {
+                @Override
+                public Object convert(String value) {
+                    return toUnmodifiableList(elementType, value);
+                }
+            };
+        }
+    };
+
+    /**
+     * 集合转换器缓存，键为(集合类型, 元素类型)
+     */
+    private static final ConcurrentMap<List<Class<?>>, ValueConverter> COLLECTION_CONVERTERS =
+            new ConcurrentHashMap<List<Class<?>>, ValueConverter>();
+    /**
+     * 可修改集合转换器缓存，键为(集合类型, 元素类型)
+     */
+    private static final ConcurrentMap<List<Class<?>>, ValueConverter> MUTABLE_COLLECTION_CONVERTERS =
+            new ConcurrentHashMap<List<Class<?>>, ValueConverter>();
+
+    private ValueConverters() {
+    }
+
+    /**
+     * 获取指定类型的转换器
+     */
+    static ValueConverter forType(Class<?> type) {
+        return TYPE_CONVERTERS.get(type);
+    }
+
+    /**
+     * 获取不可修改列表的转换器，配置值按逗号拆分
+     */
+    static ValueConverter forList(Class<?> elementType) {
+        return LIST_CONVERTERS.get(elementType);
+    }
+
+    /**
+     * 获取集合类型的转换器，配置值按逗号拆分
+     */
+    static ValueConverter forCollection(final Class<?> collectionType, final Class<?> elementType) {
+        List<Class<?>> key = Arrays.<Class<?>>asList(collectionType, elementType);
+        ValueConverter converter = COLLECTION_CONVERTERS.get(key);
+        if (converter != null) {
+            return converter;
+        }
+
+        converter = createCollectionConverter(collectionType, elementType);
+        ValueConverter existingConverter = COLLECTION_CONVERTERS.putIfAbsent(key, converter);
+        return existingConverter != null ? existingConverter : converter;
+    }
+
+    /**
+     * 获取可修改集合的转换器，配置值按逗号拆分，用于绑定配置类的集合字段
+     * <p>
+     * 每次转换均返回新的集合，可由{@link ConversionCache}缓存不可修改的解析结果，绑定时复制，见{@link CopyingConverter}
+     */
+    static ValueConverter forMutableCollection(Class<?> collectionType, Class<?> elementType) {
+        // 未指定元素类型时按字符串处理
+        if (elementType == null) {
+            elementType = String.class;
+        }
+
+        List<Class<?>> key = Arrays.<Class<?>>asList(collectionType, elementType);
+        ValueConverter converter = MUTABLE_COLLECTION_CONVERTERS.get(key);
+        if (converter != null) {
+            return converter;
+        }
+
+        ValueConverter source = Set.class.isAssignableFrom(collectionType) ?
+                forCollection(Set.class, elementType) :
+                forList(elementType);
+        converter = new CopyingConverter(collectionType, source);
+        ValueConverter existingConverter = MUTABLE_COLLECTION_CONVERTERS.putIfAbsent(key, converter);
+        return existingConverter != null ? existingConverter : converter;
+    }
+
+    private static ValueConverter createCollectionConverter(final Class<?> collectionType, final Class<?> elementType) {
+        if (collectionType == List.class || collectionType == Collection.class) {
+            return forList(elementType);
+        }
+
+        if (collectionType == Set.class) {
+            if (isImmutableType(elementType)) {
+                return new CacheableConverter() {
+                    @Override
+                    public Object convert(String value) {
+                        return toUnmodifiableSet(elementType, value);
+                    }
+                };
+            }
+
+            return new ValueConverter() {
+                @Override
+                public Object convert(String value) {
+                    return toUnmodifiableSet(elementType, value);
+                }
+            };
+        }
+
+        // 具体集合类型可被修改，每次转换为新的集合
+        return new ValueConverter() {
+            @Override
+            public Object convert(String value) {
+                return Convert.toCollection(collectionType, elementType, StrUtil.splitTrim(value, ","));
+            }
+        };
+    }
+
+    private static List<?> toUnmodifiableList(Class<?> elementType, String value) {
+        return Collections.unmodifiableList(
+                (List<?>) Convert.toCollection(ArrayList.class, elementType, StrUtil.splitTrim(value, ",")));
+    }
+
+    private static Set<?> toUnmodifiableSet(Class<?> elementType, String value) {
+        return Collections.unmodifiableSet(
+                (Set<?>) Convert.toCollection(LinkedHashSet.class, elementType, StrUtil.splitTrim(value, ",")));
+    }
+
+    /**
+     * 是否为不可变类型，即基本类型及其包装类、字符串、大数与枚举
+     */
+    static boolean isImmutableType(Class<?> type) {
+        return type.isPrimitive() ||
+                ClassUtil.isPrimitiveWrapper(type) ||
+                type == String.class ||
+                type == BigDecimal.class ||
+                type == BigInteger.class ||
+                type.isEnum();
+    }
+
+    /**
+     * 转换结果是否不可修改，可在调用方之间共享
+     */
+    static boolean isShareable(ValueConverter converter) {
+        return converter instanceof SharedConverter;
+    }
+
+    /**
+     * 转换结果是否可跨快照缓存，即转换开销较大且结果不可修改的集合转换器
+     */
+    static boolean isCacheable(ValueConverter converter) {
+        return converter instanceof CacheableConverter;
+    }
+
+    private static ValueConverter createConverter(final Class<?> type) {
+        if (type == String.class) {
+            return STRING;
+        }
+
+        // 简单类型直接转换，不可变类型的转换结果可共享
+        if (isImmutableType(type)) {
+            return new SharedConverter() {
+                @Override
+                public Object convert(String value) {
+                    return Convert.convert(type, value);
+                }
+            };
+        }
+
+        if (ClassUtil.isSimpleTypeOrArray(type)) {
+            return new ValueConverter() {
+                @Override
+                public Object convert(String value) {
+                    return Convert.convert(type, value);
+                }
+            };
+        }
+
+        // 集合类型未指定元素类型时按字符串处理
+        if (Collection.class.isAssignableFrom(type)) {
+            return forCollection(type, String.class);
+        }
+
+        // 复杂类型只支持json格式，json对象可被修改，不缓存转换结果
+        return new ValueConverter() {
+            @Override
+            public Object convert(String value) {
+                return JSON.parseObject(value, type);
+            }
+        };
+    }
+
+    /**
+     * 解析时长，支持ms、s、m、h、d单位，忽略大小写及数值与单位间的空白，无单位为毫秒
+     *
+     * @return 毫秒数，格式错误则返回null
+     */
+    static Long parseDuration(String value) {
+        if (StrUtil.isBlank(value)) {
+            return null;
+        }
+
+        String duration = value.trim().toLowerCase(Locale.ENGLISH);
+        int unitIndex = 0;
+        while (unitIndex < duration.length() && Character.isDigit(duration.charAt(unitIndex))) {
+            unitIndex++;
+        }
+        if (unitIndex == 0) {
+            return null;
+        }
+
+        long amount;
+        try {
+            amount = Long.parseLong(duration.substring(0, unitIndex));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        String unit = duration.substring(unitIndex).trim();
+        if (unit.isEmpty() || "ms".equals(unit)) {
+            return amount;
+        }
+        if ("s".equals(unit)) {
+            return TimeUnit.SECONDS.toMillis(amount);
+        }
+        if ("m".equals(unit)) {
+            return TimeUnit.MINUTES.toMillis(amount);
+        }
+        if ("h".equals(unit)) {
+            return TimeUnit.HOURS.toMillis(amount);
+        }
+        if ("d".equals(unit)) {
+            return TimeUnit.DAYS.toMillis(amount);
+        }
+
+        return null;
+    }
+
+    /**
+     * 复制转换器，将不可修改的转换结果复制为指定类型的新集合
+     */
+    static final class CopyingConverter implements ValueConverter {
+
+        private final Class<?> collectionType;
+        /**
+         * 生成不可修改集合的转换器
+         */
+        private final ValueConverter source;
+
+        private CopyingConverter(Class<?> collectionType, ValueConverter source) {
+            this.collectionType = collectionType;
+            this.source = source;
+        }
+
+        @Override
+        public Object convert(String value) {
+            return copy(source.convert(value));
+        }
+
+        ValueConverter getSource() {
+            return source;
+        }
+
+        /**
+         * 复制为新的可修改集合
+         */
+        Object copy(Object value) {
+            if (value == null) {
+                return null;
+            }
+
+            Collection<Object> result = CollUtil.create(collectionType);
+            result.addAll((Collection<?>) value);
+            return result;
+        }
+    }
+
+    /**
+     * 转换结果不可修改的转换器
+     */
+    private abstract static class SharedConverter implements ValueConverter {
+    }
+
+    /**
+     * 转换结果可缓存的转换器
+     */
+    private abstract static class CacheableConverter extends SharedConverter {
+    }
+}
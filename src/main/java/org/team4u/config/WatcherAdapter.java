@@ -0,0 +1,48 @@
+package org.team4u.config;
+
+/**
+ * 配置变动观察者适配器，将配置变更集合逐个转发至{@link Watcher}
+ * <p>
+ * 单个回调出错时转发至{@link Watcher#onError(Throwable)}，不影响其余配置的回调
+ *
+ * @author Jay.Wu
+ */
+public class WatcherAdapter<C extends SystemConfig> implements ConfigChangeListener<C> {
+
+    private final Watcher<C> watcher;
+
+    public WatcherAdapter(Watcher<C> watcher) {
+        this.watcher = watcher;
+    }
+
+    @Override
+    public void onChange(ConfigChangeSet<C> changeSet) {
+        for (C newConfig : changeSet.getCreatedConfigs()) {
+            try {
+                watcher.onCreate(newConfig);
+            } catch (Throwable e) {
+                watcher.onError(e);
+            }
+        }
+
+        for (C oldConfig : changeSet.getDeletedConfigs()) {
+            try {
+                watcher.onDelete(oldConfig);
+            } catch (Throwable e) {
+                watcher.onError(e);
+            }
+        }
+
+        for (ConfigChangeSet.Modification<C> modification : changeSet.getModifiedConfigs()) {
+            try {
+                watcher.onModify(modification.getNewConfig());
+            } catch (Throwable e) {
+                watcher.onError(e);
+            }
+        }
+    }
+
+    public Watcher<C> getWatcher() {
+        return watcher;
+    }
+}
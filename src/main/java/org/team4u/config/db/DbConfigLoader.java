@@ -1,64 +1,439 @@
 package org.team4u.config.db;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.log.Log;
 import cn.hutool.log.LogFactory;
 import org.team4u.config.AbstractConfigLoader;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.FingerprintConfigLoader;
+import org.team4u.config.ScopedConfigLoader;
 import org.team4u.config.SystemConfig;
 import org.team4u.dao.core.Dao;
 import org.team4u.dao.core.SimpleDao;
+import org.team4u.kit.core.error.ExceptionUtil;
 import org.team4u.kit.core.log.LogMessage;
+import org.team4u.sql.builder.entity.annotation.Column;
+import org.team4u.sql.builder.entity.annotation.Id;
+import org.team4u.sql.builder.entity.annotation.Table;
 import org.team4u.sql.builder.util.SqlBuilders;
 
 import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 数据库配置加载器
+ * <p>
+ * 通过{@link #setScope(Set)}限定加载范围后，仅查询范围内的配置组
  *
  * @author Jay.Wu
  */
-public class DbConfigLoader<C extends SystemConfig> extends AbstractConfigLoader<C> {
+public class DbConfigLoader<C extends SystemConfig> extends AbstractConfigLoader<C>
+        implements FingerprintConfigLoader<C>, ScopedConfigLoader<C> {
+
+    private static final String DEFAULT_TABLE_NAME = "system_config";
+    /**
+     * 默认增量加载安全窗口（毫秒）
+     */
+    private static final long DEFAULT_DELTA_SAFETY_WINDOW_MS = 60 * 1000;
 
     private final Log log = LogFactory.get();
 
     private Dao dao;
 
+    private DataSource dataSource;
+
     private Class<C> configType;
 
+    private String tableName;
+
+    /**
+     * 配置组列名
+     */
+    private String typeColumn;
+
+    /**
+     * 更新时间列名
+     */
+    private String updateTimeColumn;
+
+    /**
+     * 主键字段，增量缓存以主键区分记录
+     */
+    private Field idField;
+
+    /**
+     * 是否开启增量加载
+     */
+    private boolean deltaEnabled;
+    /**
+     * 增量加载的配置缓存，以主键为key，同一配置组与配置名称存在多条记录时与全量加载结果一致
+     */
+    private Map<Object, C> deltaCache;
+    /**
+     * 增量加载的水位线，即上次加载前的数据库当前时间
+     */
+    private Date watermark;
+    /**
+     * 增量加载的安全窗口，每次查询水位线减去该窗口之后更新的配置，以覆盖延迟提交的修改
+     */
+    private long deltaSafetyWindowMs = DEFAULT_DELTA_SAFETY_WINDOW_MS;
+    /**
+     * 加载范围，为null则加载所有配置组
+     */
+    private volatile Set<String> scope;
+
     /**
      * @param configType 配置类型
      * @param dataSource 数据源
      */
     public DbConfigLoader(Class<C> configType, DataSource dataSource) {
+        this(configType, dataSource, false);
+    }
+
+    /**
+     * @param configType   配置类型
+     * @param dataSource   数据源
+     * @param deltaEnabled 是否开启增量加载，开启后仅查询update_time不早于上次加载时间减去安全窗口的配置，并通过记录数检测删除，
+     *                     同时支持通过记录数与最大update_time探测变化，要求每次修改配置时将update_time更新为数据库当前时间，
+     *                     且修改在安全窗口内提交，配置类型须包含Id注解的主键字段
+     */
+    public DbConfigLoader(Class<C> configType, DataSource dataSource, boolean deltaEnabled) {
         this.configType = configType;
+        this.dataSource = dataSource;
+        this.deltaEnabled = deltaEnabled;
+        this.tableName = parseTableName(configType);
+        this.typeColumn = parseColumnName(configType, "type");
+        this.updateTimeColumn = parseColumnName(configType, "updateTime");
+        this.idField = parseIdField(configType);
+        if (deltaEnabled && idField == null) {
+            throw new IllegalArgumentException("Delta load requires an @Id field(configType=" + configType.getName() + ")");
+        }
         dao = new SimpleDao(dataSource);
     }
 
     @Override
     public List<C> load() {
-        List<C> result = dao.queryForList(SqlBuilders.select(configType));
+        List<C> result;
+        String mode;
 
-        // 按照sequenceNo降序
-        CollUtil.sort(result, new Comparator<SystemConfig>() {
-            @Override
-            public int compare(SystemConfig o1, SystemConfig o2) {
-                return o1.getSequenceNo() - o2.getSequenceNo();
+        if (deltaEnabled) {
+            synchronized (this) {
+                mode = deltaCache == null ? "full" : "delta";
+                result = deltaCache == null ? fullLoad() : deltaLoad();
             }
-        });
+        } else {
+            mode = "full";
+            result = query();
+        }
+
+        sort(result);
 
         if (log.isTraceEnabled()) {
             log.trace(new LogMessage(this.getClass().getSimpleName(), "load")
                     .success()
+                    .append("mode", mode)
+                    .append("scope", scope)
                     .append("size", result.size())
                     .toString());
         }
         return result;
     }
 
+    /**
+     * 设置加载范围，配置组按原值与type列比较，是否忽略大小写取决于该列的排序规则
+     * <p>
+     * 开启增量加载时，加载范围变化后的首次加载为全量加载
+     */
+    @Override
+    public synchronized void setScope(Set<String> types) {
+        scope = types == null ? null : Collections.unmodifiableSet(new LinkedHashSet<String>(types));
+        deltaCache = null;
+        watermark = null;
+    }
+
+    /**
+     * 配置指纹，由加载范围内的记录数与最大update_time组成，仅在开启增量加载时可用
+     */
+    @Override
+    public String fingerprint() {
+        if (!deltaEnabled) {
+            return null;
+        }
+
+        TableStats stats = queryStats();
+        return stats.getCount() + "|" + (stats.getMaxUpdateTime() == null ? "" : stats.getMaxUpdateTime().getTime());
+    }
+
+    /**
+     * 设置增量加载的安全窗口，默认60秒
+     * <p>
+     * update_time早于提交时间超过该窗口的修改（如长事务）可能无法被增量加载读取，
+     * 窗口越大，每次增量加载重复读取的配置越多
+     */
+    public DbConfigLoader<C> setDeltaSafetyWindowMs(long deltaSafetyWindowMs) {
+        this.deltaSafetyWindowMs = deltaSafetyWindowMs;
+        return this;
+    }
+
+    /**
+     * 全量加载配置并重建增量缓存
+     */
+    private List<C> fullLoad() {
+        // 水位线取加载前的数据库当前时间，加载期间提交的修改将在下次增量加载时读取
+        Date now = queryStats().getNow();
+        List<C> result = query();
+
+        Map<Object, C> cache = new LinkedHashMap<Object, C>(result.size() * 4 / 3 + 1);
+        for (C config : result) {
+            cache.put(idOf(config), config);
+        }
+
+        deltaCache = cache;
+        watermark = now;
+        return result;
+    }
+
+    /**
+     * 增量加载配置，仅查询水位线减去安全窗口之后更新的配置并合并至缓存
+     * <p>
+     * 水位线为上次加载前的数据库当前时间而非已加载配置的最大更新时间，
+     * 大量配置更新时间相同时（如使用默认值）不会被重复读取，更新时间早于最大更新时间的延迟提交也不会遗漏。
+     * 合并后的记录数与表记录数不一致时（存在删除或漏读），退化为全量加载
+     */
+    private List<C> deltaLoad() {
+        if (watermark == null) {
+            return fullLoad();
+        }
+
+        TableStats stats = queryStats();
+        Set<String> types = scope;
+        Timestamp since = new Timestamp(watermark.getTime() - deltaSafetyWindowMs);
+        List<C> changedConfigs;
+        if (types == null) {
+            changedConfigs = dao.queryForList(SqlBuilders.select(configType)
+                    .where(updateTimeColumn, ">=", since));
+        } else if (types.isEmpty()) {
+            changedConfigs = new ArrayList<C>();
+        } else {
+            changedConfigs = dao.queryForList(SqlBuilders.select(configType)
+                    .where(updateTimeColumn, ">=", since)
+                    .and(typeColumn, "in", types.toArray(new String[types.size()])));
+        }
+        internKeys(changedConfigs);
+
+        Map<Object, C> cache = new LinkedHashMap<Object, C>(deltaCache);
+        for (C config : changedConfigs) {
+            cache.put(idOf(config), config);
+        }
+
+        if (cache.size() != stats.getCount()) {
+            return fullLoad();
+        }
+
+        deltaCache = cache;
+        watermark = stats.getNow();
+        return new ArrayList<C>(cache.values());
+    }
+
+    /**
+     * 查询加载范围内的配置，限定范围时通过一次IN查询读取所有配置组
+     */
+    private List<C> query() {
+        Set<String> types = scope;
+        List<C> result;
+        if (types == null) {
+            result = dao.queryForList(SqlBuilders.select(configType));
+        } else if (types.isEmpty()) {
+            result = new ArrayList<C>();
+        } else {
+            result = dao.queryForList(SqlBuilders.select(configType)
+                    .where(typeColumn, "in", types.toArray(new String[types.size()])));
+        }
+
+        internKeys(result);
+        return result;
+    }
+
+    /**
+     * 加载范围的查询条件，使用type列原值比较以利用配置组索引，为null则无条件
+     */
+    private String scopeCondition(Set<String> types) {
+        if (types == null) {
+            return "";
+        }
+
+        if (types.isEmpty()) {
+            return " WHERE 1 = 0";
+        }
+
+        StringBuilder condition = new StringBuilder(" WHERE ").append(typeColumn).append(" IN (");
+        for (int i = 0; i < types.size(); i++) {
+            condition.append(i == 0 ? "?" : ", ?");
+        }
+        return condition.append(")").toString();
+    }
+
+    private void bindScope(PreparedStatement statement, Set<String> types) throws SQLException {
+        if (types == null) {
+            return;
+        }
+
+        int index = 1;
+        for (String type : types) {
+            statement.setString(index++, type);
+        }
+    }
+
+    /**
+     * DefaultSystemConfig的配置组与配置名称使用共享字符串，避免每条配置及每次加载各持有一份
+     */
+    private void internKeys(List<C> configs) {
+        for (C config : configs) {
+            if (config instanceof DefaultSystemConfig) {
+                DefaultSystemConfig defaultConfig = (DefaultSystemConfig) config;
+                defaultConfig.setType(intern(defaultConfig.getType()))
+                        .setName(intern(defaultConfig.getName()));
+            }
+        }
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    /**
+     * 查询加载范围内的记录数、最大更新时间与数据库当前时间
+     */
+    private TableStats queryStats() {
+        Set<String> types = scope;
+        String sql = "SELECT COUNT(*), MAX(" + updateTimeColumn + "), CURRENT_TIMESTAMP FROM " + tableName +
+                scopeCondition(types);
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = dataSource.getConnection();
+            statement = connection.prepareStatement(sql);
+            bindScope(statement, types);
+            resultSet = statement.executeQuery();
+            resultSet.next();
+            return new TableStats(resultSet.getLong(1), resultSet.getTimestamp(2), resultSet.getTimestamp(3));
+        } catch (SQLException e) {
+            throw ExceptionUtil.toRuntimeException(e);
+        } finally {
+            IoUtil.close(resultSet);
+            IoUtil.close(statement);
+            IoUtil.close(connection);
+        }
+    }
+
+    private void sort(List<C> result) {
+        // 按照sequenceNo降序
+        CollUtil.sort(result, new Comparator<SystemConfig>() {
+            @Override
+            public int compare(SystemConfig o1, SystemConfig o2) {
+                return o1.getSequenceNo() - o2.getSequenceNo();
+            }
+        });
+    }
+
+    /**
+     * 解析字段对应的列名，与实体映射一致：Column注解未指定列名时为字段名的下划线形式
+     */
+    private String parseColumnName(Class<C> configType, String fieldName) {
+        Field field = ReflectUtil.getField(configType, fieldName);
+        Column column = field == null ? null : field.getAnnotation(Column.class);
+        if (column == null || StrUtil.isBlank(column.name())) {
+            return StrUtil.toUnderlineCase(fieldName);
+        }
+
+        return column.name();
+    }
+
+    /**
+     * 解析Id注解的主键字段，不存在则返回null
+     */
+    private Field parseIdField(Class<C> configType) {
+        for (Field field : ReflectUtil.getFields(configType)) {
+            if (field.isAnnotationPresent(Id.class)) {
+                field.setAccessible(true);
+                return field;
+            }
+        }
+
+        return null;
+    }
+
+    private Object idOf(C config) {
+        Object id = ReflectUtil.getFieldValue(config, idField);
+        if (id == null) {
+            throw new IllegalStateException("Config id is null(type=" + config.getType() +
+                    ",name=" + config.getName() + ")");
+        }
+
+        return id;
+    }
+
+    private String parseTableName(Class<C> configType) {
+        Table table = configType.getAnnotation(Table.class);
+        if (table == null || StrUtil.isBlank(table.name())) {
+            return DEFAULT_TABLE_NAME;
+        }
+
+        return table.name();
+    }
+
     @Override
     public void close() {
         // Ignore
     }
-}
\ No newline at end of file
+
+    /**
+     * 配置表统计信息
+     */
+    private static class TableStats {
+
+        private final long count;
+        private final Timestamp maxUpdateTime;
+        /**
+         * 数据库当前时间，避免应用与数据库时钟不一致
+         */
+        private final Timestamp now;
+
+        TableStats(long count, Timestamp maxUpdateTime, Timestamp now) {
+            this.count = count;
+            this.maxUpdateTime = maxUpdateTime;
+            this.now = now;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        Timestamp getMaxUpdateTime() {
+            return maxUpdateTime;
+        }
+
+        Timestamp getNow() {
+            return now;
+        }
+    }
+}
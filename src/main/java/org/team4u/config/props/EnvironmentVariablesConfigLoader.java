@@ -0,0 +1,78 @@
+package org.team4u.config.props;
+
+import cn.hutool.core.util.StrUtil;
+import org.team4u.config.AbstractConfigLoader;
+import org.team4u.config.DefaultSystemConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 环境变量配置加载器
+ * <p>
+ * 加载以指定前缀开头的环境变量，去除前缀并转为小写后按最后一个"_"拆分为配置组与配置名称，配置组中的"_"转为"."，
+ * 如前缀为"CONFIG_"时，CONFIG_APP_A=1对应配置组app下的配置a，CONFIG_DB_MASTER_HOST对应配置组db.master下的配置host，
+ * 不含"_"的环境变量无法确定配置组，将被忽略。通常与{@link SystemPropertiesConfigLoader}一同作为{@link org.team4u.config.CompositeConfigLoader}的高优先级层
+ *
+ * @author Jay.Wu
+ */
+public class EnvironmentVariablesConfigLoader extends AbstractConfigLoader<DefaultSystemConfig> {
+
+    /**
+     * 默认环境变量前缀
+     */
+    public static final String DEFAULT_PREFIX = "CONFIG_";
+
+    private final String prefix;
+
+    public EnvironmentVariablesConfigLoader() {
+        this(DEFAULT_PREFIX);
+    }
+
+    /**
+     * @param prefix 环境变量前缀，区分大小写，为空则加载所有环境变量
+     */
+    public EnvironmentVariablesConfigLoader(String prefix) {
+        this.prefix = StrUtil.nullToEmpty(prefix);
+    }
+
+    @Override
+    public List<DefaultSystemConfig> load() {
+        List<DefaultSystemConfig> configs = new ArrayList<DefaultSystemConfig>();
+
+        for (Map.Entry<String, String> entry : getEnv().entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                continue;
+            }
+
+            String typeAndName = key.substring(prefix.length()).toLowerCase(Locale.ENGLISH);
+            int index = typeAndName.lastIndexOf('_');
+            if (index <= 0 || index == typeAndName.length() - 1) {
+                continue;
+            }
+
+            configs.add(new DefaultSystemConfig()
+                    .setEnabled(true)
+                    .setType(typeAndName.substring(0, index).replace('_', '.'))
+                    .setName(typeAndName.substring(index + 1))
+                    .setValue(entry.getValue()));
+        }
+
+        return configs;
+    }
+
+    /**
+     * 环境变量，默认为{@link System#getenv()}
+     */
+    protected Map<String, String> getEnv() {
+        return System.getenv();
+    }
+
+    @Override
+    public void close() {
+        // Ignore
+    }
+}
@@ -2,65 +2,193 @@ package org.team4u.config.props;
 
 import cn.hutool.core.io.FileUtil;
 import org.team4u.config.AbstractConfigLoader;
+import org.team4u.config.ChangeListener;
+import org.team4u.config.ConfigKey;
 import org.team4u.config.DefaultSystemConfig;
-import org.team4u.kit.core.action.Function;
+import org.team4u.config.FingerprintConfigLoader;
+import org.team4u.config.SubscribableConfigLoader;
 import org.team4u.kit.core.error.ExceptionUtil;
-import org.team4u.kit.core.util.CollectionExUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 配置文件配置加载器
+ * <p>
+ * 存在订阅者时通过{@link PropsFileWatcher}监听文件变化并通知订阅者
  *
  * @author Jay.Wu
  */
-public class PropsConfigLoader extends AbstractConfigLoader<DefaultSystemConfig> {
+public class PropsConfigLoader extends AbstractConfigLoader<DefaultSystemConfig>
+        implements FingerprintConfigLoader<DefaultSystemConfig>, SubscribableConfigLoader<DefaultSystemConfig> {
+
+    /**
+     * 默认文件事件静默期（毫秒）
+     */
+    public static final long DEFAULT_QUIET_PERIOD_MS = 200;
+    /**
+     * 文件修改时间精度（毫秒），取常见文件系统的最大值
+     */
+    private static final long LAST_MODIFIED_GRANULARITY_MS = 2000;
 
     private String path;
 
+    private long quietPeriodMs = DEFAULT_QUIET_PERIOD_MS;
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<ChangeListener>();
+    /**
+     * 文件监听器，存在订阅者时创建
+     */
+    private PropsFileWatcher fileWatcher;
+
+    /**
+     * 复用缓冲区的解析器，解析需串行执行
+     */
+    private final PropsParser parser;
+    /**
+     * 上次加载的配置，配置值未变化时复用配置对象，由解析器锁保护
+     */
+    private Map<ConfigKey, DefaultSystemConfig> lastConfigs = new HashMap<ConfigKey, DefaultSystemConfig>();
+
     /**
-     * @param path 配置文件路径
+     * @param path 配置文件路径，按ISO-8859-1编码读取，与Properties.load(InputStream)一致
      */
     public PropsConfigLoader(String path) {
+        this(path, PropsParser.ISO_8859_1);
+    }
+
+    /**
+     * @param path    配置文件路径
+     * @param charset 配置文件编码
+     */
+    public PropsConfigLoader(String path, Charset charset) {
         this.path = path;
+        this.parser = new PropsParser(charset);
     }
 
+    /**
+     * 加载配置，配置值未变化的配置复用上次加载的配置对象，其更新时间为配置值最近一次变化时的文件修改时间
+     */
     @Override
     public List<DefaultSystemConfig> load() {
+        final File propsFile = FileUtil.file(path);
+        final Date updateTime = new Date(propsFile.lastModified());
+        // 重复的键后者覆盖前者，与Properties一致
+        final Map<ConfigKey, DefaultSystemConfig> configs = new LinkedHashMap<ConfigKey, DefaultSystemConfig>();
+
         try {
-            final File propsFile = FileUtil.file(path);
-            Properties props = new Properties();
-            props.load(FileUtil.getInputStream(propsFile));
-
-            final Date updateTime = new Date(propsFile.lastModified());
-
-            return CollectionExUtil.collect(props.entrySet(),
-                    new Function<Map.Entry<Object, Object>, DefaultSystemConfig>() {
-                        @Override
-                        public DefaultSystemConfig invoke(Map.Entry<Object, Object> obj) {
-                            String typeAndName = obj.getKey().toString();
-                            int index = typeAndName.lastIndexOf(".");
-                            return new DefaultSystemConfig()
+            synchronized (parser) {
+                final Map<ConfigKey, DefaultSystemConfig> oldConfigs = lastConfigs;
+
+                parser.parse(propsFile, new PropsParser.Handler() {
+                    @Override
+                    public void onConfig(String type, String name, String value) {
+                        DefaultSystemConfig config = oldConfigs.get(new ConfigKey(type, name));
+                        if (config == null || !value.equals(config.getValue())) {
+                            // 配置组与配置名称在多次加载及多个配置间共享
+                            config = new DefaultSystemConfig()
                                     .setEnabled(true)
-                                    .setType(typeAndName.substring(0, index))
-                                    .setName(typeAndName.substring(index + 1, typeAndName.length()))
-                                    .setValue(obj.getValue().toString())
+                                    .setType(intern(type))
+                                    .setName(intern(name))
+                                    .setValue(value)
                                     .setCreateTime(updateTime)
                                     .setUpdateTime(updateTime);
                         }
-                    });
+
+                        // 使用共享的配置组与配置名称作为键，不保留解析产生的字符串
+                        configs.put(new ConfigKey(config.getType(), config.getName()), config);
+                    }
+                });
+
+                lastConfigs = configs;
+            }
         } catch (IOException e) {
             throw ExceptionUtil.toRuntimeException(e);
         }
+
+        return new ArrayList<DefaultSystemConfig>(configs.values());
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    /**
+     * 配置指纹，由文件最后修改时间与文件大小组成，修改时间处于精度范围内时追加文件内容校验和
+     */
+    @Override
+    public String fingerprint() {
+        return fingerprint(FileUtil.file(path));
+    }
+
+    static String fingerprint(File propsFile) {
+        long lastModified = propsFile.lastModified();
+        String fingerprint = lastModified + "|" + propsFile.length();
+
+        // 同一修改时间精度内的等长修改无法通过修改时间与大小识别，此时以文件内容校验和区分
+        if (System.currentTimeMillis() - lastModified < LAST_MODIFIED_GRANULARITY_MS && propsFile.isFile()) {
+            fingerprint += "|" + FileUtil.checksumCRC32(propsFile);
+        }
+        return fingerprint;
+    }
+
+    @Override
+    public synchronized void subscribe(ChangeListener listener) {
+        listeners.add(listener);
+
+        if (fileWatcher == null) {
+            fileWatcher = new PropsFileWatcher(path, quietPeriodMs, new Runnable() {
+                @Override
+                public void run() {
+                    for (ChangeListener changeListener : listeners) {
+                        changeListener.onChange();
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public synchronized void unsubscribe(ChangeListener listener) {
+        listeners.remove(listener);
+
+        if (listeners.isEmpty()) {
+            closeFileWatcher();
+        }
+    }
+
+    public long getQuietPeriodMs() {
+        return quietPeriodMs;
+    }
+
+    /**
+     * 设置文件事件静默期，需在订阅前设置
+     *
+     * @param quietPeriodMs 静默期（毫秒），最后一次文件事件之后静默期内无新事件才通知订阅者
+     */
+    public PropsConfigLoader setQuietPeriodMs(long quietPeriodMs) {
+        this.quietPeriodMs = quietPeriodMs;
+        return this;
+    }
+
+    private void closeFileWatcher() {
+        if (fileWatcher != null) {
+            fileWatcher.close();
+            fileWatcher = null;
+        }
     }
 
     @Override
-    public void close() {
-        // Ignore
+    public synchronized void close() {
+        listeners.clear();
+        closeFileWatcher();
     }
 }
\ No newline at end of file
@@ -0,0 +1,255 @@
+package org.team4u.config.props;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.log.Log;
+import cn.hutool.log.LogFactory;
+import org.team4u.config.RefreshScheduler;
+import org.team4u.kit.core.error.ExceptionUtil;
+import org.team4u.kit.core.log.LogMessage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 配置文件监听器
+ * <p>
+ * 所有监听器共用一个WatchService及其事件线程，同一目录仅登记一次，目录下的监听器全部关闭后取消登记。
+ * 静默期由{@link RefreshScheduler}计时，合并静默期内的连续事件，
+ * 仅在文件指纹（最后修改时间与大小）变化时回调，可配合{@link org.team4u.config.PullCacheConfigLoader#refresh()}实现推送刷新
+ *
+ * @author Jay.Wu
+ */
+public class PropsFileWatcher implements Closeable {
+
+    private static final Log LOG = LogFactory.get();
+
+    /**
+     * 保护WatchService的创建与目录登记
+     */
+    private static final Object LOCK = new Object();
+    /**
+     * 共享的WatchService，首个监听器创建时初始化
+     */
+    private static WatchService watchService;
+    /**
+     * 按目录登记的监听器
+     */
+    private static final ConcurrentMap<Path, DirRegistration> DIR_REGISTRATIONS =
+            new ConcurrentHashMap<Path, DirRegistration>();
+
+    private final File file;
+    private final Path dir;
+    private final Path fileName;
+    private final long quietPeriodMs;
+    private final Runnable listener;
+
+    /**
+     * 最近一次回调时的文件指纹
+     */
+    private String fingerprint;
+    /**
+     * 静默期结束后执行的检查任务
+     */
+    private ScheduledFuture<?> pendingCheck;
+
+    private volatile boolean closed;
+
+    private final Runnable checkTask = new Runnable() {
+        @Override
+        public void run() {
+            if (!closed) {
+                notifyIfChanged();
+            }
+        }
+    };
+
+    /**
+     * @param path          配置文件路径
+     * @param quietPeriodMs 静默期（毫秒），最后一次事件之后静默期内无新事件才回调
+     * @param listener      文件变化回调
+     */
+    public PropsFileWatcher(String path, long quietPeriodMs, Runnable listener) {
+        this.file = FileUtil.file(path).getAbsoluteFile();
+        this.dir = file.toPath().getParent();
+        this.fileName = file.toPath().getFileName();
+        this.quietPeriodMs = quietPeriodMs;
+        this.listener = listener;
+        this.fingerprint = PropsConfigLoader.fingerprint(file);
+
+        register(this);
+    }
+
+    /**
+     * 登记监听器，目录首次登记时注册至共享的WatchService
+     */
+    private static void register(PropsFileWatcher watcher) {
+        synchronized (LOCK) {
+            try {
+                if (watchService == null) {
+                    watchService = watcher.dir.getFileSystem().newWatchService();
+                    startDispatchThread(watchService);
+                }
+
+                DirRegistration registration = DIR_REGISTRATIONS.get(watcher.dir);
+                if (registration == null) {
+                    registration = new DirRegistration(watcher.dir.register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY,
+                            StandardWatchEventKinds.ENTRY_DELETE));
+                    DIR_REGISTRATIONS.put(watcher.dir, registration);
+                }
+
+                registration.watchers.add(watcher);
+            } catch (IOException e) {
+                throw ExceptionUtil.toRuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * 取消登记监听器，目录下无监听器时取消该目录的监听
+     */
+    private static void unregister(PropsFileWatcher watcher) {
+        synchronized (LOCK) {
+            DirRegistration registration = DIR_REGISTRATIONS.get(watcher.dir);
+            if (registration == null ||
+                    !registration.watchers.remove(watcher) ||
+                    !registration.watchers.isEmpty()) {
+                return;
+            }
+
+            DIR_REGISTRATIONS.remove(watcher.dir);
+            registration.key.cancel();
+        }
+    }
+
+    private static void startDispatchThread(final WatchService service) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch(service);
+            }
+        }, "simple-config-props-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 将目录事件分发至该目录下的监听器
+     */
+    private static void dispatch(WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException e) {
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+
+            List<WatchEvent<?>> events = key.pollEvents();
+            DirRegistration registration = DIR_REGISTRATIONS.get((Path) key.watchable());
+            // 忽略已取消登记的目录的残留事件
+            boolean registered = registration != null && registration.key == key;
+            if (registered) {
+                for (PropsFileWatcher watcher : registration.watchers) {
+                    if (watcher.isFileEvent(events)) {
+                        watcher.onFileEvent();
+                    }
+                }
+            }
+
+            if (!key.reset() && registered) {
+                LOG.warn(new LogMessage(PropsFileWatcher.class.getSimpleName(), "watch")
+                        .fail()
+                        .append("dir", key.watchable())
+                        .append("reason", "watch key is no longer valid")
+                        .toString());
+            }
+        }
+    }
+
+    /**
+     * 是否包含配置文件相关事件，事件溢出时视为相关
+     */
+    private boolean isFileEvent(List<WatchEvent<?>> events) {
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * 重新开始静默期计时，合并连续事件，如编辑器保存时的截断与多次写入
+     */
+    private synchronized void onFileEvent() {
+        if (closed) {
+            return;
+        }
+
+        if (pendingCheck != null) {
+            pendingCheck.cancel(false);
+        }
+        pendingCheck = RefreshScheduler.schedule(checkTask, quietPeriodMs);
+    }
+
+    private synchronized void notifyIfChanged() {
+        String newFingerprint = PropsConfigLoader.fingerprint(file);
+        if (newFingerprint.equals(fingerprint)) {
+            return;
+        }
+
+        fingerprint = newFingerprint;
+
+        try {
+            listener.run();
+        } catch (Throwable e) {
+            LOG.error(e, new LogMessage(this.getClass().getSimpleName(), "notify")
+                    .fail()
+                    .append("file", file)
+                    .toString());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+
+        synchronized (this) {
+            if (pendingCheck != null) {
+                pendingCheck.cancel(false);
+            }
+        }
+
+        unregister(this);
+    }
+
+    /**
+     * 目录登记信息
+     */
+    private static class DirRegistration {
+
+        private final WatchKey key;
+        private final List<PropsFileWatcher> watchers = new CopyOnWriteArrayList<PropsFileWatcher>();
+
+        DirRegistration(WatchKey key) {
+            this.key = key;
+        }
+    }
+}
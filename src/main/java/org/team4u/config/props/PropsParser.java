@@ -0,0 +1,410 @@
+package org.team4u.config.props;
+
+import cn.hutool.core.io.IoUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 配置文件解析器
+ * <p>
+ * 通过NIO将文件读入复用的缓冲区，按{@link java.util.Properties#load(java.io.InputStream)}的规则
+ * 解析注释、分隔符、转义字符及续行，并直接将type.name格式的键拆分为配置组与配置名称，
+ * 无需先构建Properties再逐个复制。非线程安全，同一实例的解析需串行执行。
+ *
+ * @author Jay.Wu
+ */
+public class PropsParser {
+
+    public static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final Charset charset;
+
+    /**
+     * 复用的文件读取缓冲区
+     */
+    private ByteBuffer fileBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    /**
+     * 复用的逻辑行缓冲区
+     */
+    private char[] lineBuf = new char[1024];
+    /**
+     * 复用的转义转换缓冲区
+     */
+    private char[] convertBuf = new char[1024];
+
+    private CharSequence source;
+    private int offset;
+    private int limit;
+
+    /**
+     * 使用ISO-8859-1编码，与Properties.load(InputStream)一致
+     */
+    public PropsParser() {
+        this(ISO_8859_1);
+    }
+
+    /**
+     * @param charset 文件编码
+     */
+    public PropsParser(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * 解析配置文件
+     */
+    public void parse(File file, Handler handler) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            read(in.getChannel());
+        } finally {
+            IoUtil.close(in);
+        }
+
+        parse(decode(fileBuffer), handler);
+    }
+
+    /**
+     * 解析配置内容
+     */
+    public void parse(CharSequence content, Handler handler) {
+        source = content;
+        offset = 0;
+        limit = content.length();
+
+        try {
+            int len;
+            while ((len = readLine()) >= 0) {
+                parseLine(len, handler);
+            }
+        } finally {
+            source = null;
+        }
+    }
+
+    /**
+     * 读取文件至复用缓冲区，文件读取期间变大时扩容
+     */
+    private void read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("File too large|size=" + size);
+        }
+
+        ensureFileBufferCapacity((int) size + 1);
+        fileBuffer.clear();
+
+        while (channel.read(fileBuffer) >= 0) {
+            if (!fileBuffer.hasRemaining()) {
+                ensureFileBufferCapacity(fileBuffer.capacity() * 2);
+            }
+        }
+
+        fileBuffer.flip();
+    }
+
+    private void ensureFileBufferCapacity(int capacity) {
+        if (fileBuffer.capacity() >= capacity) {
+            return;
+        }
+
+        ByteBuffer newBuffer = ByteBuffer.allocate(capacity);
+        fileBuffer.flip();
+        newBuffer.put(fileBuffer);
+        fileBuffer = newBuffer;
+    }
+
+    private CharSequence decode(ByteBuffer buffer) throws CharacterCodingException {
+        // ISO-8859-1每个字节即一个字符，无需解码
+        if (ISO_8859_1.equals(charset)) {
+            return new Latin1Sequence(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+
+        CharBuffer chars = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(buffer);
+        return chars;
+    }
+
+    /**
+     * 读取一个逻辑行至lineBuf，跳过空行与注释行，并合并续行
+     *
+     * @return 逻辑行长度，无更多内容则返回-1
+     */
+    private int readLine() {
+        int len = 0;
+        boolean skipWhiteSpace = true;
+        boolean isCommentLine = false;
+        boolean isNewLine = true;
+        boolean appendedLineBegin = false;
+        boolean precedingBackslash = false;
+        boolean skipLF = false;
+
+        while (true) {
+            if (offset >= limit) {
+                if (len == 0 || isCommentLine) {
+                    return -1;
+                }
+                if (precedingBackslash) {
+                    len--;
+                }
+                return len;
+            }
+
+            char c = source.charAt(offset++);
+
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+
+            if (skipWhiteSpace) {
+                if (c == ' ' || c == '\t' || c == '\f') {
+                    continue;
+                }
+                if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+                    continue;
+                }
+                skipWhiteSpace = false;
+                appendedLineBegin = false;
+            }
+
+            if (isNewLine) {
+                isNewLine = false;
+                if (c == '#' || c == '!') {
+                    isCommentLine = true;
+                    continue;
+                }
+            }
+
+            if (c != '\n' && c != '\r') {
+                if (isCommentLine) {
+                    continue;
+                }
+
+                if (len == lineBuf.length) {
+                    lineBuf = grow(lineBuf, len * 2);
+                }
+                lineBuf[len++] = c;
+
+                // 奇数个连续反斜杠表示转义下一个字符
+                precedingBackslash = c == '\\' && !precedingBackslash;
+                continue;
+            }
+
+            // 行尾
+            if (isCommentLine || len == 0) {
+                isCommentLine = false;
+                isNewLine = true;
+                skipWhiteSpace = true;
+                len = 0;
+                continue;
+            }
+
+            if (offset >= limit) {
+                if (precedingBackslash) {
+                    len--;
+                }
+                return len;
+            }
+
+            if (!precedingBackslash) {
+                return len;
+            }
+
+            // 续行，去掉行尾反斜杠并跳过下一行的行首空白
+            len--;
+            skipWhiteSpace = true;
+            appendedLineBegin = true;
+            precedingBackslash = false;
+            if (c == '\r') {
+                skipLF = true;
+            }
+        }
+    }
+
+    /**
+     * 拆分逻辑行的键与值，并将键拆分为配置组与配置名称
+     */
+    private void parseLine(int len, Handler handler) {
+        int keyLen = 0;
+        int valueStart = len;
+        boolean hasSep = false;
+        boolean precedingBackslash = false;
+
+        while (keyLen < len) {
+            char c = lineBuf[keyLen];
+            if ((c == '=' || c == ':') && !precedingBackslash) {
+                valueStart = keyLen + 1;
+                hasSep = true;
+                break;
+            }
+            if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                valueStart = keyLen + 1;
+                break;
+            }
+
+            precedingBackslash = c == '\\' && !precedingBackslash;
+            keyLen++;
+        }
+
+        while (valueStart < len) {
+            char c = lineBuf[valueStart];
+            if (c != ' ' && c != '\t' && c != '\f') {
+                if (!hasSep && (c == '=' || c == ':')) {
+                    hasSep = true;
+                } else {
+                    break;
+                }
+            }
+            valueStart++;
+        }
+
+        // 键按最后一个点号拆分为配置组与配置名称，无点号则无法确定配置组
+        int convertedKeyLen = convert(lineBuf, 0, keyLen);
+        int dotIndex = lastIndexOf(convertBuf, convertedKeyLen, '.');
+        if (dotIndex < 0) {
+            throw new IllegalArgumentException("Config key without type|key=" +
+                    new String(convertBuf, 0, convertedKeyLen));
+        }
+        String type = new String(convertBuf, 0, dotIndex);
+        String name = new String(convertBuf, dotIndex + 1, convertedKeyLen - dotIndex - 1);
+
+        int convertedValueLen = convert(lineBuf, valueStart, len - valueStart);
+        String value = new String(convertBuf, 0, convertedValueLen);
+
+        handler.onConfig(type, name, value);
+    }
+
+    /**
+     * 转换转义字符至convertBuf
+     *
+     * @return 转换后的长度
+     */
+    private int convert(char[] in, int off, int len) {
+        if (convertBuf.length < len) {
+            convertBuf = new char[Math.max(len, convertBuf.length * 2)];
+        }
+
+        char[] out = convertBuf;
+        int outLen = 0;
+        int end = off + len;
+
+        while (off < end) {
+            char c = in[off++];
+            if (c != '\\' || off >= end) {
+                out[outLen++] = c;
+                continue;
+            }
+
+            c = in[off++];
+            if (c == 'u') {
+                if (off + 4 > end) {
+                    throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                }
+
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(in[off++], 16);
+                    if (digit < 0) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    value = (value << 4) + digit;
+                }
+                out[outLen++] = (char) value;
+            } else {
+                if (c == 't') {
+                    c = '\t';
+                } else if (c == 'r') {
+                    c = '\r';
+                } else if (c == 'n') {
+                    c = '\n';
+                } else if (c == 'f') {
+                    c = '\f';
+                }
+                out[outLen++] = c;
+            }
+        }
+
+        return outLen;
+    }
+
+    private static int lastIndexOf(char[] chars, int len, char c) {
+        for (int i = len - 1; i >= 0; i--) {
+            if (chars[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static char[] grow(char[] chars, int newLength) {
+        char[] newChars = new char[newLength];
+        System.arraycopy(chars, 0, newChars, 0, chars.length);
+        return newChars;
+    }
+
+    /**
+     * 配置处理器
+     */
+    public interface Handler {
+
+        /**
+         * 解析到一个配置，重复的键将多次回调，后者应覆盖前者
+         *
+         * @param type  配置组，即键最后一个点号之前的部分，键不包含点号时解析失败并抛出IllegalArgumentException
+         * @param name  配置名称
+         * @param value 配置值
+         */
+        void onConfig(String type, String name, String value);
+    }
+
+    /**
+     * ISO-8859-1字节数组字符序列，按字节直接映射为字符
+     */
+    private static class Latin1Sequence implements CharSequence {
+
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        Latin1Sequence(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[offset + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new Latin1Sequence(bytes, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, offset, length, ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.team4u.config.props;
+
+import cn.hutool.core.util.StrUtil;
+import org.team4u.config.AbstractConfigLoader;
+import org.team4u.config.DefaultSystemConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 系统属性配置加载器
+ * <p>
+ * 加载以指定前缀开头的系统属性，去除前缀后按最后一个"."拆分为配置组与配置名称，
+ * 如前缀为"config."时，-Dconfig.app.a=1对应配置组app下的配置a，通常作为{@link org.team4u.config.CompositeConfigLoader}的最高优先级层
+ *
+ * @author Jay.Wu
+ */
+public class SystemPropertiesConfigLoader extends AbstractConfigLoader<DefaultSystemConfig> {
+
+    /**
+     * 默认系统属性前缀
+     */
+    public static final String DEFAULT_PREFIX = "config.";
+
+    private final String prefix;
+
+    public SystemPropertiesConfigLoader() {
+        this(DEFAULT_PREFIX);
+    }
+
+    /**
+     * @param prefix 系统属性前缀，为空则加载所有系统属性
+     */
+    public SystemPropertiesConfigLoader(String prefix) {
+        this.prefix = StrUtil.nullToEmpty(prefix);
+    }
+
+    @Override
+    public List<DefaultSystemConfig> load() {
+        Properties properties = System.getProperties();
+        List<DefaultSystemConfig> configs = new ArrayList<DefaultSystemConfig>();
+
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(prefix)) {
+                continue;
+            }
+
+            String typeAndName = key.substring(prefix.length());
+            int index = typeAndName.lastIndexOf('.');
+            configs.add(new DefaultSystemConfig()
+                    .setEnabled(true)
+                    .setType(index < 0 ? null : typeAndName.substring(0, index))
+                    .setName(index < 0 ? typeAndName : typeAndName.substring(index + 1))
+                    .setValue(properties.getProperty(key)));
+        }
+
+        return configs;
+    }
+
+    @Override
+    public void close() {
+        // Ignore
+    }
+}
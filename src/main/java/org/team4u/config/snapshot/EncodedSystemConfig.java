@@ -0,0 +1,139 @@
+package org.team4u.config.snapshot;
+
+import org.team4u.config.SystemConfig;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+/**
+ * 编码结果中的配置记录
+ * <p>
+ * 配置组与配置名称引用字符串表，创建时读取定长字段，配置值与描述在首次读取时解码
+ *
+ * @author Jay.Wu
+ */
+class EncodedSystemConfig implements SystemConfig {
+
+    private final ByteBuffer data;
+    /**
+     * 配置值的偏移
+     */
+    private final int textOffset;
+
+    private final String type;
+    private final String name;
+    private final Boolean enabled;
+    private final int sequenceNo;
+    private final Long id;
+    private final Date createTime;
+    private final Date updateTime;
+
+    /**
+     * 配置值与描述，首次读取时解码
+     */
+    private volatile String[] texts;
+
+    EncodedSystemConfig(ByteBuffer data, String[] strings, int offset) {
+        this.data = data;
+
+        type = string(strings, data.getInt(offset));
+        name = string(strings, data.getInt(offset + 4));
+        byte enabledFlag = data.get(offset + 8);
+        enabled = enabledFlag == -1 ? null : enabledFlag == 1;
+        sequenceNo = data.getInt(offset + 9);
+
+        int flags = data.get(offset + 13);
+        int position = offset + 14;
+        if ((flags & SnapshotCodec.FLAG_ID) != 0) {
+            id = data.getLong(position);
+            position += 8;
+        } else {
+            id = null;
+        }
+        if ((flags & SnapshotCodec.FLAG_CREATE_TIME) != 0) {
+            createTime = new Date(data.getLong(position));
+            position += 8;
+        } else {
+            createTime = null;
+        }
+        if ((flags & SnapshotCodec.FLAG_UPDATE_TIME) != 0) {
+            updateTime = new Date(data.getLong(position));
+            position += 8;
+        } else {
+            updateTime = null;
+        }
+
+        textOffset = position;
+    }
+
+    private static String string(String[] strings, int id) {
+        return id < 0 ? null : strings[id];
+    }
+
+    private String[] texts() {
+        String[] result = texts;
+        if (result != null) {
+            return result;
+        }
+
+        // 共享缓冲区的位置不可修改，复制视图后读取
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(textOffset);
+        result = new String[]{SnapshotCodec.readString(buffer), SnapshotCodec.readString(buffer)};
+        texts = result;
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getValue() {
+        return texts()[0];
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public int getSequenceNo() {
+        return sequenceNo;
+    }
+
+    @Override
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public String getDescription() {
+        return texts()[1];
+    }
+
+    @Override
+    public Date getUpdateTime() {
+        return updateTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    @Override
+    public String toString() {
+        return "{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", type='" + type + '\'' +
+                ", value='" + getValue() + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,298 @@
+package org.team4u.config.snapshot;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.log.Log;
+import cn.hutool.log.LogFactory;
+import org.team4u.config.AbstractConfigLoader;
+import org.team4u.config.ChangeListener;
+import org.team4u.config.ConfigLoader;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.FingerprintConfigLoader;
+import org.team4u.config.SubscribableConfigLoader;
+import org.team4u.config.SystemConfig;
+import org.team4u.kit.core.log.LogMessage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 本地快照配置加载器
+ * <p>
+ * 装饰其他配置加载器，每次成功加载后将配置写入本地快照文件，见{@link SnapshotFile}与{@link SnapshotCodec}，
+ * 校验和与上次写入一致时跳过写入。
+ * 启动时若存在有效的快照文件，则立即使用快照文件中的配置，同时在独立的后台线程从原加载器加载配置，
+ * 成功后通知订阅者重新加载，启动不再依赖数据库等配置源的可用性，后台加载也不占用共享的刷新线程
+ *
+ * @author Jay.Wu
+ */
+public class LocalSnapshotConfigLoader extends AbstractConfigLoader<DefaultSystemConfig>
+        implements FingerprintConfigLoader<DefaultSystemConfig>, SubscribableConfigLoader<DefaultSystemConfig> {
+
+    /**
+     * 默认后台加载失败重试间隔（毫秒）
+     */
+    public static final long DEFAULT_RETRY_INTERVAL_MS = 5000;
+
+    private final Log log = LogFactory.get();
+
+    private final ConfigLoader<? extends SystemConfig> delegateConfigLoader;
+
+    private final File file;
+
+    private long retryIntervalMs = DEFAULT_RETRY_INTERVAL_MS;
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<ChangeListener>();
+
+    /**
+     * 快照文件中的配置，后台加载成功前使用，之后为null
+     */
+    private volatile List<DefaultSystemConfig> localConfigs;
+    /**
+     * 快照文件的校验和，用作后台加载成功前的配置指纹
+     */
+    private volatile long localChecksum;
+    /**
+     * 最近一次写入或读取的快照文件校验和，为null则表示未知
+     */
+    private volatile Long savedChecksum;
+    /**
+     * 后台加载的配置，由下一次加载直接返回，避免重复加载
+     */
+    private final AtomicReference<List<DefaultSystemConfig>> reconciledConfigs =
+            new AtomicReference<List<DefaultSystemConfig>>();
+
+    private final Runnable reconcileTask = new Runnable() {
+        @Override
+        public void run() {
+            reconcile();
+        }
+    };
+    /**
+     * 后台加载执行器，仅在使用快照文件启动时创建，后台加载成功或关闭后停止
+     */
+    private volatile ScheduledExecutorService reconcileExecutor;
+
+    private volatile boolean closed;
+
+    /**
+     * @param delegateConfigLoader 原配置加载器
+     * @param path                 本地快照文件路径
+     */
+    public LocalSnapshotConfigLoader(ConfigLoader<? extends SystemConfig> delegateConfigLoader, String path) {
+        this.delegateConfigLoader = delegateConfigLoader;
+        this.file = FileUtil.file(path);
+
+        boot();
+    }
+
+    /**
+     * 读取快照文件，文件有效则后台加载配置
+     */
+    private void boot() {
+        LogMessage lm = new LogMessage(this.getClass().getSimpleName(), "boot")
+                .append("file", file);
+
+        try {
+            byte[] data = file.isFile() ? FileUtil.readBytes(file) : null;
+            if (data == null) {
+                log.info(lm.success().append("mode", "delegate").toString());
+                return;
+            }
+
+            localConfigs = SnapshotCodec.decode(data);
+            localChecksum = SnapshotCodec.checksum(data);
+            savedChecksum = localChecksum;
+            log.info(lm.success()
+                    .append("mode", "local")
+                    .append("size", localConfigs.size())
+                    .toString());
+        } catch (Exception e) {
+            // 快照文件损坏时直接使用原加载器
+            log.error(e, lm.fail().append("mode", "delegate").toString());
+            return;
+        }
+
+        reconcileExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadUtil.newNamedThreadFactory("simple-config-snapshot-reconcile-", true));
+        reconcileExecutor.execute(reconcileTask);
+    }
+
+    /**
+     * 从原加载器加载配置，成功后通知订阅者，失败则稍后重试
+     */
+    private void reconcile() {
+        if (closed) {
+            return;
+        }
+
+        LogMessage lm = new LogMessage(this.getClass().getSimpleName(), "reconcile")
+                .append("file", file);
+        try {
+            reconciledConfigs.set(loadAndSave());
+            localConfigs = null;
+            log.info(lm.success().toString());
+        } catch (Exception e) {
+            log.error(e, lm.fail().append("retryIntervalMs", retryIntervalMs).toString());
+
+            if (!closed) {
+                reconcileExecutor.schedule(reconcileTask, retryIntervalMs, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+
+        reconcileExecutor.shutdown();
+
+        for (ChangeListener listener : listeners) {
+            listener.onChange();
+        }
+    }
+
+    @Override
+    public List<DefaultSystemConfig> load() {
+        List<DefaultSystemConfig> configs = localConfigs;
+        if (configs != null) {
+            return configs;
+        }
+
+        configs = reconciledConfigs.getAndSet(null);
+        if (configs != null) {
+            return configs;
+        }
+
+        return loadAndSave();
+    }
+
+    /**
+     * 从原加载器加载配置并写入快照文件，配置未变化时不重写，写入失败不影响加载结果
+     */
+    private List<DefaultSystemConfig> loadAndSave() {
+        List<DefaultSystemConfig> configs = toDefaultConfigs(delegateConfigLoader.load());
+        if (configs == null) {
+            return null;
+        }
+
+        try {
+            byte[] data = SnapshotCodec.encode(configs);
+            long checksum = SnapshotCodec.checksum(data);
+            Long lastChecksum = savedChecksum;
+            if (lastChecksum != null && lastChecksum == checksum && file.isFile()) {
+                return configs;
+            }
+
+            SnapshotFile.write(file, data);
+            savedChecksum = checksum;
+        } catch (Exception e) {
+            log.error(e, new LogMessage(this.getClass().getSimpleName(), "save")
+                    .fail()
+                    .append("file", file)
+                    .toString());
+        }
+
+        return configs;
+    }
+
+    private List<DefaultSystemConfig> toDefaultConfigs(List<? extends SystemConfig> configs) {
+        if (configs == null) {
+            return null;
+        }
+
+        List<DefaultSystemConfig> result = new ArrayList<DefaultSystemConfig>(configs.size());
+        for (SystemConfig config : configs) {
+            if (config instanceof DefaultSystemConfig) {
+                result.add((DefaultSystemConfig) config);
+                continue;
+            }
+
+            result.add(new DefaultSystemConfig()
+                    .setType(config.getType())
+                    .setName(config.getName())
+                    .setValue(config.getValue())
+                    .setDescription(config.getDescription())
+                    .setSequenceNo(config.getSequenceNo())
+                    .setEnabled(config.getEnabled())
+                    .setUpdateTime(config.getUpdateTime()));
+        }
+        return result;
+    }
+
+    /**
+     * 配置指纹，后台加载成功前为快照文件校验和，之后为原加载器的配置指纹
+     */
+    @Override
+    public String fingerprint() {
+        if (localConfigs != null) {
+            return "local|" + localChecksum;
+        }
+
+        if (reconciledConfigs.get() != null) {
+            return null;
+        }
+
+        return delegateConfigLoader instanceof FingerprintConfigLoader ?
+                ((FingerprintConfigLoader<?>) delegateConfigLoader).fingerprint() :
+                null;
+    }
+
+    /**
+     * 订阅后台加载成功事件，原加载器支持订阅时同时订阅原加载器
+     */
+    @Override
+    public void subscribe(ChangeListener listener) {
+        listeners.add(listener);
+
+        if (delegateConfigLoader instanceof SubscribableConfigLoader) {
+            ((SubscribableConfigLoader<?>) delegateConfigLoader).subscribe(listener);
+        }
+    }
+
+    @Override
+    public void unsubscribe(ChangeListener listener) {
+        listeners.remove(listener);
+
+        if (delegateConfigLoader instanceof SubscribableConfigLoader) {
+            ((SubscribableConfigLoader<?>) delegateConfigLoader).unsubscribe(listener);
+        }
+    }
+
+    /**
+     * 是否仍在使用快照文件中的配置
+     */
+    public boolean isLocal() {
+        return localConfigs != null;
+    }
+
+    public long getRetryIntervalMs() {
+        return retryIntervalMs;
+    }
+
+    /**
+     * 设置后台加载失败重试间隔
+     *
+     * @param retryIntervalMs 重试间隔（毫秒）
+     */
+    public LocalSnapshotConfigLoader setRetryIntervalMs(long retryIntervalMs) {
+        this.retryIntervalMs = retryIntervalMs;
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+
+        ScheduledExecutorService executor = reconcileExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+
+        listeners.clear();
+        delegateConfigLoader.close();
+    }
+}
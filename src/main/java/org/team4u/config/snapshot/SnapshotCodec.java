@@ -0,0 +1,363 @@
+package org.team4u.config.snapshot;
+
+import org.team4u.config.ConfigSnapshot;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.SystemConfig;
+import org.team4u.kit.core.error.ExceptionUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+
+/**
+ * 配置快照二进制编解码器
+ * <p>
+ * 格式（大端序）：
+ * <pre>
+ * 头部     魔数(int) 版本号(short) 保留(short) 配置数量(int) 字符串数量(int) 字符串表偏移(int) 索引偏移(int)
+ * 字符串表 配置组与配置名称去重后依次存储，每项为长度(int)与UTF-8字节
+ * 配置记录 配置组编号(int) 配置名称编号(int) 是否开启(byte) 排序(int) 可选字段标记(byte) 可选字段(long)
+ *          配置值与配置描述，每项为长度(int，-1表示null)与UTF-8字节
+ * 索引     每条配置记录的偏移(int)
+ * 校验和   之前所有字节的CRC32(long)
+ * </pre>
+ * 通过索引可直接定位任意配置，{@link #open(ByteBuffer)}仅在访问配置值时才解码，适合直接读取内存映射文件
+ *
+ * @author Jay.Wu
+ */
+public final class SnapshotCodec {
+
+    /**
+     * 魔数，即"SCFG"
+     */
+    public static final int MAGIC = 0x53434647;
+    public static final short VERSION = 2;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int HEADER_LENGTH = 24;
+    private static final int CHECKSUM_LENGTH = 8;
+    private static final int ENTRY_COUNT_OFFSET = 8;
+    private static final int STRING_COUNT_OFFSET = 12;
+    private static final int STRING_TABLE_OFFSET = 16;
+    private static final int INDEX_OFFSET = 20;
+
+    static final int FLAG_ID = 1;
+    static final int FLAG_CREATE_TIME = 2;
+    static final int FLAG_UPDATE_TIME = 4;
+
+    private SnapshotCodec() {
+    }
+
+    /**
+     * 编码配置，包含末尾的校验和
+     */
+    public static byte[] encode(List<? extends SystemConfig> configs) {
+        Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+        for (SystemConfig config : configs) {
+            stringId(strings, config.getType());
+            stringId(strings, config.getName());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_LENGTH + configs.size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        int[] offsets = new int[configs.size()];
+
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeInt(configs.size());
+            out.writeInt(strings.size());
+            out.writeInt(HEADER_LENGTH);
+            // 索引偏移，写完配置记录后回填
+            out.writeInt(0);
+
+            for (String value : strings.keySet()) {
+                writeString(out, value);
+            }
+
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = out.size();
+                writeEntry(out, configs.get(i), strings);
+            }
+
+            int indexOffset = out.size();
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+
+            // 预留校验和
+            out.writeLong(0);
+            out.flush();
+
+            byte[] data = bytes.toByteArray();
+            putInt(data, INDEX_OFFSET, indexOffset);
+
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, data.length - CHECKSUM_LENGTH);
+            putLong(data, data.length - CHECKSUM_LENGTH, crc.getValue());
+            return data;
+        } catch (IOException e) {
+            throw ExceptionUtil.toRuntimeException(e);
+        }
+    }
+
+    /**
+     * 解码所有配置
+     *
+     * @throws IllegalStateException 校验和不一致或版本不支持
+     */
+    public static List<DefaultSystemConfig> decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        verify(buffer);
+
+        int entryCount = buffer.getInt(ENTRY_COUNT_OFFSET);
+        String[] strings = readStrings(buffer);
+
+        // 配置记录紧随字符串表之后连续存储，顺序读取无需通过索引定位
+        List<DefaultSystemConfig> configs = new ArrayList<DefaultSystemConfig>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            configs.add(readEntry(buffer, strings));
+        }
+        return configs;
+    }
+
+    /**
+     * 打开编码结果，返回只读的配置列表
+     * <p>
+     * 校验后仅解码字符串表，配置记录在首次访问时创建，配置值与描述在首次读取时解码，
+     * 可直接传入{@link java.nio.MappedByteBuffer}，无需将文件读入堆内存
+     *
+     * @throws IllegalStateException 校验和不一致或版本不支持
+     */
+    public static List<SystemConfig> open(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate();
+        data.position(0);
+        verify(data);
+
+        return new EncodedConfigList(data, readStrings(data), data.getInt(INDEX_OFFSET), data.getInt(ENTRY_COUNT_OFFSET));
+    }
+
+    /**
+     * 打开编码结果并建立配置快照
+     *
+     * @see #open(ByteBuffer)
+     */
+    public static ConfigSnapshot<SystemConfig> openSnapshot(ByteBuffer buffer) {
+        return new ConfigSnapshot<SystemConfig>(open(buffer));
+    }
+
+    /**
+     * 获取编码结果末尾的校验和
+     */
+    public static long checksum(byte[] data) {
+        return ByteBuffer.wrap(data).getLong(data.length - CHECKSUM_LENGTH);
+    }
+
+    private static void verify(ByteBuffer data) {
+        int length = data.limit();
+        if (length < HEADER_LENGTH + CHECKSUM_LENGTH) {
+            throw new IllegalStateException("Snapshot is truncated|length=" + length);
+        }
+
+        if (data.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a snapshot");
+        }
+
+        short version = data.getShort(4);
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported snapshot version|version=" + version);
+        }
+
+        if (crc(data, length - CHECKSUM_LENGTH) != data.getLong(length - CHECKSUM_LENGTH)) {
+            throw new IllegalStateException("Snapshot checksum mismatch");
+        }
+    }
+
+    private static long crc(ByteBuffer data, int length) {
+        CRC32 crc = new CRC32();
+        if (data.hasArray()) {
+            crc.update(data.array(), data.arrayOffset(), length);
+            return crc.getValue();
+        }
+
+        // 直接缓冲区分块复制，避免一次性读入堆内存
+        ByteBuffer source = data.duplicate();
+        source.position(0);
+        byte[] chunk = new byte[Math.min(length, 8192)];
+        int remaining = length;
+        while (remaining > 0) {
+            int size = Math.min(remaining, chunk.length);
+            source.get(chunk, 0, size);
+            crc.update(chunk, 0, size);
+            remaining -= size;
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 读取字符串表，读取后位置位于第一条配置记录
+     */
+    private static String[] readStrings(ByteBuffer data) {
+        String[] strings = new String[data.getInt(STRING_COUNT_OFFSET)];
+        data.position(data.getInt(STRING_TABLE_OFFSET));
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(data);
+        }
+        return strings;
+    }
+
+    /**
+     * 从当前位置读取配置记录，并移动至记录之后
+     */
+    private static DefaultSystemConfig readEntry(ByteBuffer data, String[] strings) {
+        int typeId = data.getInt();
+        int nameId = data.getInt();
+        byte enabled = data.get();
+        int sequenceNo = data.getInt();
+        int flags = data.get();
+
+        return new DefaultSystemConfig()
+                .setType(typeId < 0 ? null : strings[typeId])
+                .setName(nameId < 0 ? null : strings[nameId])
+                .setEnabled(enabled == -1 ? null : enabled == 1)
+                .setSequenceNo(sequenceNo)
+                .setId((flags & FLAG_ID) == 0 ? null : data.getLong())
+                .setCreateTime((flags & FLAG_CREATE_TIME) == 0 ? null : new Date(data.getLong()))
+                .setUpdateTime((flags & FLAG_UPDATE_TIME) == 0 ? null : new Date(data.getLong()))
+                .setValue(readString(data))
+                .setDescription(readString(data));
+    }
+
+    private static int stringId(Map<String, Integer> strings, String value) {
+        if (value == null) {
+            return -1;
+        }
+
+        Integer id = strings.get(value);
+        if (id == null) {
+            id = strings.size();
+            strings.put(value, id);
+        }
+        return id;
+    }
+
+    private static void writeEntry(DataOutputStream out, SystemConfig config, Map<String, Integer> strings)
+            throws IOException {
+        Long id = null;
+        Date createTime = null;
+        if (config instanceof DefaultSystemConfig) {
+            id = ((DefaultSystemConfig) config).getId();
+            createTime = ((DefaultSystemConfig) config).getCreateTime();
+        } else if (config instanceof EncodedSystemConfig) {
+            id = ((EncodedSystemConfig) config).getId();
+            createTime = ((EncodedSystemConfig) config).getCreateTime();
+        }
+        Date updateTime = config.getUpdateTime();
+
+        out.writeInt(stringId(strings, config.getType()));
+        out.writeInt(stringId(strings, config.getName()));
+        out.writeByte(config.getEnabled() == null ? -1 : (config.getEnabled() ? 1 : 0));
+        out.writeInt(config.getSequenceNo());
+        out.writeByte((id == null ? 0 : FLAG_ID) |
+                (createTime == null ? 0 : FLAG_CREATE_TIME) |
+                (updateTime == null ? 0 : FLAG_UPDATE_TIME));
+        if (id != null) {
+            out.writeLong(id);
+        }
+        if (createTime != null) {
+            out.writeLong(createTime.getTime());
+        }
+        if (updateTime != null) {
+            out.writeLong(updateTime.getTime());
+        }
+        writeString(out, config.getValue());
+        writeString(out, config.getDescription());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 从当前位置读取字符串，并移动至字符串之后
+     */
+    static String readString(ByteBuffer data) {
+        int length = data.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        String value;
+        if (data.hasArray()) {
+            value = new String(data.array(), data.arrayOffset() + data.position(), length, UTF_8);
+            data.position(data.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            data.get(bytes);
+            value = new String(bytes, UTF_8);
+        }
+        return value;
+    }
+
+    private static void putInt(byte[] data, int offset, int value) {
+        ByteBuffer.wrap(data).putInt(offset, value);
+    }
+
+    private static void putLong(byte[] data, int offset, long value) {
+        ByteBuffer.wrap(data).putLong(offset, value);
+    }
+
+    /**
+     * 编码结果的只读配置列表，配置记录在首次访问时创建
+     */
+    private static class EncodedConfigList extends AbstractList<SystemConfig> implements RandomAccess {
+
+        private final ByteBuffer data;
+        private final String[] strings;
+        private final int indexOffset;
+        private final AtomicReferenceArray<SystemConfig> configs;
+
+        EncodedConfigList(ByteBuffer data, String[] strings, int indexOffset, int size) {
+            this.data = data;
+            this.strings = strings;
+            this.indexOffset = indexOffset;
+            this.configs = new AtomicReferenceArray<SystemConfig>(size);
+        }
+
+        @Override
+        public SystemConfig get(int index) {
+            SystemConfig config = configs.get(index);
+            if (config != null) {
+                return config;
+            }
+
+            config = new EncodedSystemConfig(data, strings, data.getInt(indexOffset + index * 4));
+            return configs.compareAndSet(index, null, config) ? config : configs.get(index);
+        }
+
+        @Override
+        public int size() {
+            return configs.length();
+        }
+    }
+}
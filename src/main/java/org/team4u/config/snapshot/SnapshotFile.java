@@ -0,0 +1,101 @@
+package org.team4u.config.snapshot;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.SystemConfig;
+import org.team4u.kit.core.error.ExceptionUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * 本地配置快照文件
+ * <p>
+ * 文件内容为{@link SnapshotCodec}编码结果，末尾带CRC32校验和。
+ * 写入时先写临时文件并同步至磁盘，再原子替换目标文件，读取方不会读到写入一半的文件
+ *
+ * @author Jay.Wu
+ */
+public final class SnapshotFile {
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * 读取快照文件
+     *
+     * @return 配置，文件不存在则返回null
+     * @throws IllegalStateException 文件损坏或版本不支持
+     */
+    public static List<DefaultSystemConfig> read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        return SnapshotCodec.decode(FileUtil.readBytes(file));
+    }
+
+    /**
+     * 以只读方式映射快照文件并打开，配置值在读取时才解码
+     * <p>
+     * 映射在缓冲区被回收前一直有效，期间部分平台（如Windows）无法替换该文件，不适合频繁写入的文件
+     *
+     * @see SnapshotCodec#open(ByteBuffer)
+     */
+    public static List<SystemConfig> map(File file) {
+        FileChannel channel = null;
+        try {
+            channel = new RandomAccessFile(file, "r").getChannel();
+            return SnapshotCodec.open(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw ExceptionUtil.toRuntimeException(e);
+        } finally {
+            IoUtil.close(channel);
+        }
+    }
+
+    /**
+     * 原子写入快照文件
+     *
+     * @param data 编码结果，见{@link SnapshotCodec#encode(List)}
+     */
+    public static void write(File file, byte[] data) {
+        File dir = file.getAbsoluteFile().getParentFile();
+        FileUtil.mkdir(dir);
+
+        File tempFile = null;
+        FileOutputStream out = null;
+        try {
+            tempFile = File.createTempFile(file.getName(), ".tmp", dir);
+            out = new FileOutputStream(tempFile);
+            out.write(data);
+            // 替换前确保内容已落盘，避免宕机后出现空文件
+            out.getFD().sync();
+            out.close();
+            out = null;
+
+            try {
+                Files.move(tempFile.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw ExceptionUtil.toRuntimeException(e);
+        } finally {
+            IoUtil.close(out);
+            if (tempFile != null) {
+                FileUtil.del(tempFile);
+            }
+        }
+    }
+}
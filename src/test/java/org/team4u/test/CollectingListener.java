@@ -0,0 +1,42 @@
+package org.team4u.test;
+
+import org.junit.Assert;
+import org.team4u.config.ConfigChangeListener;
+import org.team4u.config.ConfigChangeSet;
+import org.team4u.config.DefaultSystemConfig;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 收集变更集合的监听器
+ *
+ * @author Jay.Wu
+ */
+public class CollectingListener implements ConfigChangeListener<DefaultSystemConfig> {
+
+    private final BlockingQueue<ConfigChangeSet<DefaultSystemConfig>> changeSets =
+            new LinkedBlockingQueue<ConfigChangeSet<DefaultSystemConfig>>();
+
+    @Override
+    public void onChange(ConfigChangeSet<DefaultSystemConfig> changeSet) {
+        changeSets.add(changeSet);
+    }
+
+    /**
+     * 等待下一个变更集合
+     */
+    public ConfigChangeSet<DefaultSystemConfig> poll() throws InterruptedException {
+        ConfigChangeSet<DefaultSystemConfig> changeSet = changeSets.poll(1, TimeUnit.SECONDS);
+        Assert.assertNotNull(changeSet);
+        return changeSet;
+    }
+
+    /**
+     * 短时间内是否未收到变更集合
+     */
+    public boolean isEmpty() throws InterruptedException {
+        return changeSets.poll(100, TimeUnit.MILLISECONDS) == null;
+    }
+}
@@ -0,0 +1,119 @@
+package org.team4u.test;
+
+import cn.hutool.core.collection.CollUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.CompositeConfigLoader;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.FixedRefreshPolicy;
+import org.team4u.config.PullCacheConfigLoader;
+import org.team4u.config.props.EnvironmentVariablesConfigLoader;
+import org.team4u.config.props.SystemPropertiesConfigLoader;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.team4u.test.TestUtil.newConfig;
+
+/**
+ * @author Jay.Wu
+ */
+public class CompositeConfigLoaderTest {
+
+    @Test
+    public void layeredPrecedence() throws IOException {
+        System.setProperty("config.app.b", "3");
+        try {
+            CompositeConfigLoader<DefaultSystemConfig> loader = new CompositeConfigLoader<DefaultSystemConfig>()
+                    .addLayer(new MemoryConfigLoader(CollUtil.newArrayList(
+                            newConfig("app", "a", "1"),
+                            newConfig("app", "b", "1"),
+                            newConfig("app", "d", "1")
+                    )))
+                    .addLayer(new MemoryConfigLoader(CollUtil.newArrayList(
+                            newConfig("APP", "A", "2"),
+                            newConfig("app", "c", "2"),
+                            newConfig("app", "d", "2").setEnabled(false)
+                    )))
+                    .addLayer(new SystemPropertiesConfigLoader());
+
+            Assert.assertEquals(4, loader.load().size());
+            Assert.assertEquals(2, loader.getInt("app", "a", 0));
+            Assert.assertEquals(3, loader.getInt("app", "b", 0));
+            Assert.assertEquals(2, loader.getInt("app", "c", 0));
+            // 高优先级层未开启的配置同样覆盖低优先级层
+            Assert.assertEquals(0, loader.getInt("app", "d", 0));
+
+            loader.close();
+        } finally {
+            System.clearProperty("config.app.b");
+        }
+    }
+
+    @Test
+    public void environmentVariablesLayer() throws IOException {
+        final Map<String, String> env = CollUtil.newHashMap();
+        env.put("CONFIG_APP_A", "3");
+        env.put("CONFIG_DB_MASTER_HOST", "h1");
+        env.put("CONFIG_NOTYPE", "1");
+        env.put("PATH", "/bin");
+
+        CompositeConfigLoader<DefaultSystemConfig> loader = new CompositeConfigLoader<DefaultSystemConfig>()
+                .addLayer(new MemoryConfigLoader(CollUtil.newArrayList(
+                        newConfig("app", "a", "1"),
+                        newConfig("app", "b", "1")
+                )))
+                .addLayer(new EnvironmentVariablesConfigLoader() {
+                    @Override
+                    protected Map<String, String> getEnv() {
+                        return env;
+                    }
+                });
+
+        // 不含配置组的环境变量及前缀之外的环境变量被忽略
+        Assert.assertEquals(3, loader.load().size());
+        Assert.assertEquals(3, loader.getInt("app", "a", 0));
+        Assert.assertEquals(1, loader.getInt("app", "b", 0));
+        Assert.assertEquals("h1", loader.getString("db.master", "host", null));
+
+        loader.close();
+    }
+
+    @Test
+    public void refreshChangedLayer() throws IOException {
+        DefaultSystemConfig b = newConfig("app", "b", "1");
+        MemoryConfigLoader defaults = new MemoryConfigLoader(
+                CollUtil.newArrayList(newConfig("app", "a", "1"), b));
+        MemoryConfigLoader overrides = new MemoryConfigLoader(
+                CollUtil.newArrayList(newConfig("app", "a", "2")));
+
+        CompositeConfigLoader<DefaultSystemConfig> composite = new CompositeConfigLoader<DefaultSystemConfig>()
+                .addLayer(defaults)
+                .addLayer(overrides, new FixedRefreshPolicy(50));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(composite, 0);
+
+        final PullCacheConfigLoaderTest.AppConfig app = loader.to(PullCacheConfigLoaderTest.AppConfig.class);
+        Assert.assertEquals(Integer.valueOf(2), app.getA());
+        String fingerprint = composite.fingerprint();
+
+        // 未变化的层不影响合并结果
+        composite.refresh();
+        Assert.assertEquals(fingerprint, composite.fingerprint());
+
+        // 覆盖层删除配置后使用默认层的配置，由覆盖层的定时刷新触发
+        overrides.setConfigs(CollUtil.<DefaultSystemConfig>newArrayList());
+        Assert.assertTrue(TestUtil.waitUntil(new TestUtil.Condition() {
+            @Override
+            public boolean isMet() {
+                return Integer.valueOf(1).equals(app.getA());
+            }
+        }, 5000));
+
+        List<DefaultSystemConfig> configs = composite.load();
+        Assert.assertEquals(2, configs.size());
+        Assert.assertSame(b, configs.get(1));
+
+        loader.close();
+    }
+}
@@ -0,0 +1,183 @@
+package org.team4u.test;
+
+import cn.hutool.core.collection.CollUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.ConfigChangeListener;
+import org.team4u.config.ConfigChangeSet;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.PullCacheConfigLoader;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.team4u.test.TestUtil.newConfig;
+
+/**
+ * 配置变更监听器的分发
+ *
+ * @author Jay.Wu
+ */
+public class ConfigChangeDispatcherTest {
+
+    @Test
+    public void asyncListeners() throws Exception {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "a", "1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+        PullCacheConfigLoaderTest.AppConfig app = loader.to(PullCacheConfigLoaderTest.AppConfig.class);
+
+        final CountDownLatch slowListenerStarted = new CountDownLatch(1);
+        final CountDownLatch releaseSlowListener = new CountDownLatch(1);
+        loader.addListener(new ConfigChangeListener<DefaultSystemConfig>() {
+            @Override
+            public void onChange(ConfigChangeSet<DefaultSystemConfig> changeSet) {
+                slowListenerStarted.countDown();
+                try {
+                    releaseSlowListener.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("slow listener");
+            }
+        });
+
+        CollectingListener received = new CollectingListener();
+        loader.addListener(received);
+
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "a", "2"),
+                newConfig("db", "host", "h1")
+        ));
+        // 慢监听器不阻塞刷新
+        loader.refresh();
+        Assert.assertEquals(Integer.valueOf(2), app.getA());
+
+        // 每次刷新收到一个完整的变更集合，不受慢监听器影响
+        ConfigChangeSet<DefaultSystemConfig> changeSet = received.poll();
+        Assert.assertEquals(1, changeSet.getCreatedConfigs().size());
+        Assert.assertEquals(1, changeSet.getModifiedConfigs().size());
+
+        Assert.assertTrue(slowListenerStarted.await(1, TimeUnit.SECONDS));
+        releaseSlowListener.countDown();
+
+        // 监听器出错不影响后续变更的分发
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "a", "3")
+        ));
+        loader.refresh();
+        changeSet = received.poll();
+        Assert.assertEquals(1, changeSet.getDeletedConfigs().size());
+
+        loader.close();
+    }
+
+    @Test
+    public void scopedListeners() throws Exception {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "a", "1"),
+                newConfig("db", "host", "h1"),
+                newConfig("db", "port", "1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+        loader.to(PullCacheConfigLoaderTest.AppConfig.class);
+
+        CollectingListener all = new CollectingListener();
+        CollectingListener appType = new CollectingListener();
+        CollectingListener dbClass = new CollectingListener();
+        CollectingListener dbHost = new CollectingListener();
+        CollectingListener unrelated = new CollectingListener();
+        loader.addListener(all)
+                .addListener("APP", appType)
+                .addListener(PullCacheConfigLoaderTest.DbConfig.class, dbClass)
+                .addListener("db", "Host", dbHost)
+                .addListener("other", unrelated);
+
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "a", "2"),
+                newConfig("db", "host", "h2"),
+                newConfig("db", "user", "u")
+        ));
+        loader.refresh();
+
+        ConfigChangeSet<DefaultSystemConfig> changeSet = all.poll();
+        Assert.assertEquals(1, changeSet.getCreatedConfigs().size());
+        Assert.assertEquals(2, changeSet.getModifiedConfigs().size());
+        Assert.assertEquals(1, changeSet.getDeletedConfigs().size());
+
+        changeSet = appType.poll();
+        Assert.assertEquals(CollUtil.newHashSet("app"), changeSet.getChangedTypes());
+        Assert.assertEquals(1, changeSet.getModifiedConfigs().size());
+
+        changeSet = dbClass.poll();
+        Assert.assertEquals(CollUtil.newHashSet("db"), changeSet.getChangedTypes());
+        Assert.assertEquals(1, changeSet.getCreatedConfigs().size());
+        Assert.assertEquals(1, changeSet.getModifiedConfigs().size());
+        Assert.assertEquals(1, changeSet.getDeletedConfigs().size());
+
+        changeSet = dbHost.poll();
+        Assert.assertEquals(1, changeSet.getModifiedConfigs().size());
+        Assert.assertEquals("h2", changeSet.getModifiedConfigs().get(0).getNewConfig().getValue());
+        Assert.assertTrue(changeSet.getCreatedConfigs().isEmpty());
+        Assert.assertTrue(changeSet.getDeletedConfigs().isEmpty());
+
+        Assert.assertTrue(unrelated.isEmpty());
+
+        Assert.assertTrue(loader.removeListener(dbHost));
+        loader.close();
+    }
+
+    @Test
+    public void listenerWithMultipleSubscriptions() throws Exception {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("db", "host", "h1"),
+                newConfig("db", "port", "1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+        loader.to(PullCacheConfigLoaderTest.DbConfig.class);
+
+        CollectingListener scoped = new CollectingListener();
+        CollectingListener all = new CollectingListener();
+        loader.addListener("db", scoped)
+                .addListener("db", "host", scoped)
+                .addListener(all)
+                .addListener("db", all);
+
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("db", "host", "h2"),
+                newConfig("db", "port", "2")
+        ));
+        loader.refresh();
+
+        // 同一监听器的多个订阅仅收到一个变更集合，且每个变化仅出现一次
+        ConfigChangeSet<DefaultSystemConfig> changeSet = scoped.poll();
+        Assert.assertEquals(2, changeSet.getModifiedConfigs().size());
+        Assert.assertTrue(scoped.isEmpty());
+
+        changeSet = all.poll();
+        Assert.assertEquals(2, changeSet.getModifiedConfigs().size());
+        Assert.assertTrue(all.isEmpty());
+
+        Assert.assertTrue(loader.removeListener(scoped));
+        loader.close();
+    }
+
+    @Test
+    public void listenerForClassWithoutPrefix() throws Exception {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "a", "1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+
+        // 未声明前缀的配置类无法确定配置组
+        try {
+            loader.addListener(ConfigLoaderTest.Config.E.class, new CollectingListener());
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains(ConfigLoaderTest.Config.E.class.getName()));
+        }
+
+        loader.close();
+    }
+}
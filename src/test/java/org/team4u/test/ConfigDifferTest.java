@@ -0,0 +1,87 @@
+package org.team4u.test;
+
+import cn.hutool.core.collection.CollUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.ConfigChangeSet;
+import org.team4u.config.ConfigDiffer;
+import org.team4u.config.ConfigSnapshot;
+import org.team4u.config.DefaultSystemConfig;
+
+/**
+ * @author Jay.Wu
+ */
+public class ConfigDifferTest {
+
+    @Test
+    public void diff() {
+        ConfigSnapshot<DefaultSystemConfig> oldSnapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("app").setName("a").setValue("1").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("b").setValue("2").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("c").setValue("3").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("d").setValue("4").setEnabled(true)
+        ));
+
+        ConfigSnapshot<DefaultSystemConfig> newSnapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("app").setName("a").setValue("1").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("b").setValue("22").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("d").setValue("4").setEnabled(false),
+                new DefaultSystemConfig().setType("app").setName("e").setValue("5").setEnabled(true)
+        ));
+
+        ConfigChangeSet<DefaultSystemConfig> changeSet = ConfigDiffer.diff(oldSnapshot, newSnapshot);
+
+        Assert.assertEquals(1, changeSet.getCreatedConfigs().size());
+        Assert.assertEquals("e", changeSet.getCreatedConfigs().get(0).getName());
+
+        Assert.assertEquals(1, changeSet.getDeletedConfigs().size());
+        Assert.assertEquals("c", changeSet.getDeletedConfigs().get(0).getName());
+
+        Assert.assertEquals(2, changeSet.getModifiedConfigs().size());
+        Assert.assertEquals("2", changeSet.getModifiedConfigs().get(0).getOldConfig().getValue());
+        Assert.assertEquals("22", changeSet.getModifiedConfigs().get(0).getNewConfig().getValue());
+        Assert.assertEquals("d", changeSet.getModifiedConfigs().get(1).getNewConfig().getName());
+
+        Assert.assertTrue(ConfigDiffer.diff(newSnapshot, newSnapshot).isEmpty());
+    }
+
+    @Test
+    public void diffDuplicateRows() {
+        ConfigSnapshot<DefaultSystemConfig> oldSnapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("app").setName("a").setValue("0").setEnabled(false),
+                new DefaultSystemConfig().setType("app").setName("a").setValue("1").setEnabled(true)
+        ));
+
+        // 修改开启的重复配置
+        ConfigSnapshot<DefaultSystemConfig> newSnapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("app").setName("a").setValue("0").setEnabled(false),
+                new DefaultSystemConfig().setType("app").setName("a").setValue("2").setEnabled(true)
+        ));
+        ConfigChangeSet<DefaultSystemConfig> changeSet = ConfigDiffer.diff(oldSnapshot, newSnapshot);
+        Assert.assertEquals(1, changeSet.getModifiedConfigs().size());
+        Assert.assertEquals("1", changeSet.getModifiedConfigs().get(0).getOldConfig().getValue());
+        Assert.assertEquals("2", changeSet.getModifiedConfigs().get(0).getNewConfig().getValue());
+        Assert.assertTrue(changeSet.getCreatedConfigs().isEmpty());
+        Assert.assertTrue(changeSet.getDeletedConfigs().isEmpty());
+
+        // 重复配置的加载顺序变化不视为修改
+        ConfigSnapshot<DefaultSystemConfig> reorderedSnapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("app").setName("a").setValue("1").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("a").setValue("0").setEnabled(false)
+        ));
+        Assert.assertTrue(ConfigDiffer.diff(oldSnapshot, reorderedSnapshot).isEmpty());
+
+        // 新增与删除重复配置
+        ConfigSnapshot<DefaultSystemConfig> singleSnapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("app").setName("a").setValue("1").setEnabled(true)
+        ));
+        changeSet = ConfigDiffer.diff(singleSnapshot, oldSnapshot);
+        Assert.assertEquals(1, changeSet.getCreatedConfigs().size());
+        Assert.assertEquals("0", changeSet.getCreatedConfigs().get(0).getValue());
+        Assert.assertTrue(changeSet.getModifiedConfigs().isEmpty());
+
+        changeSet = ConfigDiffer.diff(oldSnapshot, singleSnapshot);
+        Assert.assertEquals(1, changeSet.getDeletedConfigs().size());
+        Assert.assertEquals("0", changeSet.getDeletedConfigs().get(0).getValue());
+    }
+}
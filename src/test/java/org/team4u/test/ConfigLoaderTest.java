@@ -6,6 +6,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.team4u.config.*;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
@@ -28,7 +29,64 @@ public class ConfigLoaderTest {
             }
         };
 
+        Config config = checkTo(loader);
+        // 集合字段为可修改的集合
+        config.getH().add(3);
+        Assert.assertEquals(CollUtil.newArrayList(2, 1), loader.to(Config.class).getH());
+    }
+
+    @Test
+    public void toWithMethodHandle() {
+        AbstractConfigLoader<DefaultSystemConfig> loader = new AbstractConfigLoader<DefaultSystemConfig>() {
+
+            @Override
+            public void close() {
+
+            }
+
+            @Override
+            public List<DefaultSystemConfig> load() {
+                return createConfigs();
+            }
+        };
+        loader.setAccessorType(AccessorType.METHOD_HANDLE);
+
         checkTo(loader);
+
+        // 静态字段使用反射访问
+        StaticFieldConfig config = loader.to(StaticFieldConfig.class);
+        Assert.assertEquals(Integer.valueOf(1), config.getA());
+        Assert.assertEquals("k", StaticFieldConfig.k);
+    }
+
+    @Test
+    public void cachedBindingPlans() {
+        ConfigLoader<DefaultSystemConfig> loader = new AbstractConfigLoader<DefaultSystemConfig>() {
+
+            @Override
+            public void close() {
+
+            }
+
+            @Override
+            public List<DefaultSystemConfig> load() {
+                return CollUtil.newArrayList(
+                        new DefaultSystemConfig().setType("APP").setName("A").setValue("1").setEnabled(true),
+                        new DefaultSystemConfig().setType("other").setName("a").setValue("2").setEnabled(true)
+                );
+            }
+        };
+
+        // 绑定计划按(配置类, 前缀, 忽略字段)区分，配置组与配置名称忽略大小写
+        String[] ignoreFields = {"a"};
+        Assert.assertNull(loader.to(Config.class, "app", ignoreFields).getA());
+        Assert.assertEquals(Integer.valueOf(1), loader.to(Config.class, "app").getA());
+        Assert.assertEquals(Integer.valueOf(2), loader.to(Config.class, "other").getA());
+
+        // 修改传入的忽略字段数组不影响已缓存的绑定计划
+        ignoreFields[0] = "b";
+        Assert.assertEquals(Integer.valueOf(1), loader.to(Config.class, "app", ignoreFields).getA());
+        Assert.assertNull(loader.to(Config.class, "app", new String[]{"a"}).getA());
     }
 
     protected static List<DefaultSystemConfig> createConfigs() {
@@ -74,6 +132,25 @@ public class ConfigLoaderTest {
         return config;
     }
 
+    @ConfigurationProperties("app")
+    public static class StaticFieldConfig implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        static String k = "k";
+
+        Integer a;
+
+        public Integer getA() {
+            return a;
+        }
+
+        public StaticFieldConfig setA(Integer a) {
+            this.a = a;
+            return this;
+        }
+    }
+
     @ConfigurationProperties("app")
     public static class Config {
 
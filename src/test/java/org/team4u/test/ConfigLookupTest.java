@@ -0,0 +1,130 @@
+package org.team4u.test;
+
+import cn.hutool.core.collection.CollUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.ConfigHolder;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.PullCacheConfigLoader;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.team4u.test.TestUtil.newConfig;
+
+/**
+ * 单个配置读取与配置值转换缓存
+ *
+ * @author Jay.Wu
+ */
+public class ConfigLookupTest {
+
+    @Test
+    public void typedLookup() throws IOException {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "int", "12"),
+                newConfig("app", "long", "123456789012"),
+                newConfig("app", "bool", "true"),
+                newConfig("app", "timeout", "5 s"),
+                newConfig("app", "list", "1, 2,3"),
+                newConfig("app", "person", "{'name':'fjay','age':1}"),
+                newConfig("app", "bad", "x"),
+                newConfig("app", "disabled", "1").setEnabled(false)
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+
+        Assert.assertEquals("12", loader.getString("APP", "Int", null));
+        Assert.assertEquals(12, loader.getInt("app", "int", 0));
+        Assert.assertEquals(123456789012L, loader.getLong("app", "long", 0));
+        Assert.assertTrue(loader.getBoolean("app", "bool", false));
+        Assert.assertEquals(5000, loader.getDuration("app", "timeout", 0));
+        Assert.assertEquals(CollUtil.newArrayList(1, 2, 3), loader.getList("app", "list", Integer.class));
+        Assert.assertEquals("fjay", loader.getObject("app", "person", ConfigLoaderTest.Config.E.class, null).getName());
+
+        // 不存在、未开启或无法转换时返回默认值
+        Assert.assertEquals(-1, loader.getInt("app", "bad", -1));
+        Assert.assertEquals(-1, loader.getInt("app", "disabled", -1));
+        Assert.assertEquals(-1, loader.getDuration("app", "bad", -1));
+        Assert.assertEquals("d", loader.getString("app", "none", "d"));
+        Assert.assertTrue(loader.getList("app", "none", Integer.class).isEmpty());
+
+        // 同一快照内复用不可修改的转换结果
+        List<Integer> list = loader.getList("app", "list", Integer.class);
+        Assert.assertSame(list, loader.getList("APP", "LIST", Integer.class));
+        try {
+            list.add(4);
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            Assert.assertEquals(3, list.size());
+        }
+
+        // json对象可被修改，每次重新转换
+        ConfigLoaderTest.Config.E person = loader.getObject("app", "person", ConfigLoaderTest.Config.E.class, null);
+        person.setName("x");
+        Assert.assertEquals("fjay", loader.getObject("app", "person", ConfigLoaderTest.Config.E.class, null).getName());
+
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "list", "4")
+        ));
+        loader.refresh();
+        Assert.assertEquals(CollUtil.newArrayList(4), loader.getList("app", "list", Integer.class));
+        Assert.assertEquals(0, loader.getInt("app", "int", 0));
+
+        loader.close();
+    }
+
+    @Test
+    public void reuseParsedValues() throws IOException {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("json", "e", "{'name':'a'}"),
+                newConfig("json", "list", "1,2"),
+                newConfig("json", "version", "1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+
+        ConfigHolder<PullCacheConfigLoaderTest.JsonConfig> holder =
+                loader.toHolder(PullCacheConfigLoaderTest.JsonConfig.class);
+        PullCacheConfigLoaderTest.JsonConfig oldConfig = holder.get();
+        List<Integer> oldList = loader.getList("json", "list", Integer.class);
+
+        // 同一配置组内其他配置变化时，未变化的集合配置值不重新解析
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("json", "e", "{'name':'a'}"),
+                newConfig("json", "list", "1,2"),
+                newConfig("json", "version", "2")
+        ));
+        loader.refresh();
+
+        PullCacheConfigLoaderTest.JsonConfig newConfig = holder.get();
+        Assert.assertNotSame(oldConfig, newConfig);
+        Assert.assertEquals(Integer.valueOf(2), newConfig.getVersion());
+        Assert.assertSame(oldList, loader.getList("json", "list", Integer.class));
+
+        // 配置类的集合字段为复制的可修改集合，不在配置对象间共享
+        Assert.assertNotSame(oldConfig.getList(), newConfig.getList());
+        Assert.assertEquals(oldConfig.getList(), newConfig.getList());
+        newConfig.getList().add(3);
+        Assert.assertEquals(CollUtil.newArrayList(1, 2), oldConfig.getList());
+        Assert.assertEquals(CollUtil.newArrayList(1, 2), oldList);
+
+        // json对象可被修改，每次绑定重新解析，不在配置对象间共享
+        Assert.assertNotSame(oldConfig.getE(), newConfig.getE());
+        Assert.assertEquals(oldConfig.getE().getName(), newConfig.getE().getName());
+        newConfig.getE().setName("c");
+        Assert.assertEquals("a", oldConfig.getE().getName());
+
+        // 配置值变化后重新解析
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("json", "e", "{'name':'b'}"),
+                newConfig("json", "list", "1,2"),
+                newConfig("json", "version", "2")
+        ));
+        loader.refresh();
+
+        Assert.assertEquals("b", holder.get().getE().getName());
+        Assert.assertEquals("a", oldConfig.getE().getName());
+        Assert.assertSame(oldList, loader.getList("json", "list", Integer.class));
+
+        loader.close();
+    }
+}
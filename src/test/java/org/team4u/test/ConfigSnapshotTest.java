@@ -0,0 +1,61 @@
+package org.team4u.test;
+
+import cn.hutool.core.collection.CollUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.ConfigKey;
+import org.team4u.config.ConfigSnapshot;
+import org.team4u.config.DefaultSystemConfig;
+
+import java.util.List;
+
+/**
+ * @author Jay.Wu
+ */
+public class ConfigSnapshotTest {
+
+    @Test
+    public void getEnabledConfig() {
+        ConfigSnapshot<DefaultSystemConfig> snapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("App").setName("A").setValue("1").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("b").setValue("2").setEnabled(false)
+        ));
+
+        Assert.assertEquals("1", snapshot.getEnabledConfig("app", "a").getValue());
+        Assert.assertEquals("1", snapshot.getEnabledConfig("APP", "A").getValue());
+        Assert.assertNull(snapshot.getEnabledConfig("app", "b"));
+        Assert.assertEquals(2, snapshot.getConfigs().size());
+    }
+
+    @Test
+    public void duplicate() {
+        ConfigSnapshot<DefaultSystemConfig> snapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("app").setName("a").setValue("1").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("A").setValue("2").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("b").setValue("3").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("b").setValue("4").setEnabled(false)
+        ));
+
+        Assert.assertTrue(snapshot.isDuplicate(ConfigKey.normalized("app", "a")));
+        Assert.assertFalse(snapshot.isDuplicate(ConfigKey.normalized("app", "b")));
+    }
+
+    @Test
+    public void reuseUnchanged() {
+        DefaultSystemConfig a = new DefaultSystemConfig().setType("app").setName("a").setValue("1").setEnabled(true);
+        DefaultSystemConfig b = new DefaultSystemConfig().setType("app").setName("b").setValue("2").setEnabled(true);
+        ConfigSnapshot<DefaultSystemConfig> snapshot = new ConfigSnapshot<DefaultSystemConfig>(CollUtil.newArrayList(a, b));
+
+        List<DefaultSystemConfig> newConfigs = CollUtil.newArrayList(
+                new DefaultSystemConfig().setType("app").setName("a").setValue("1").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("b").setValue("3").setEnabled(true),
+                new DefaultSystemConfig().setType("app").setName("c").setValue("4").setEnabled(true)
+        );
+        List<DefaultSystemConfig> result = snapshot.reuseUnchanged(newConfigs);
+
+        Assert.assertSame(a, result.get(0));
+        Assert.assertSame(newConfigs.get(1), result.get(1));
+        Assert.assertSame(newConfigs.get(2), result.get(2));
+        Assert.assertNotSame(a, newConfigs.get(0));
+    }
+}
@@ -1,5 +1,6 @@
 package org.team4u.test;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.thread.ThreadUtil;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -11,6 +12,10 @@ import org.team4u.config.db.DbConfigLoader;
 import org.team4u.dao.core.SimpleDao;
 import org.team4u.sql.builder.util.SqlBuilders;
 
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
 /**
  * @author Jay.Wu
  */
@@ -84,6 +89,146 @@ public class DbConfigLoaderTest extends ConfigLoaderTest {
         Assert.assertEquals("j", c.getJ());
     }
 
+    @Test
+    public void deltaLoad() {
+        DbConfigLoader<DefaultSystemConfig> loader = new DbConfigLoader<DefaultSystemConfig>(
+                DefaultSystemConfig.class, dao.getDataSource(), true);
+        int size = loader.load().size();
+
+        dao.insert(new DefaultSystemConfig()
+                .setType("delta")
+                .setName("a")
+                .setValue("1")
+                .setEnabled(true)
+                .setCreateTime(new Date())
+                .setUpdateTime(new Date()), null, true);
+        Assert.assertEquals(size + 1, loader.load().size());
+        Assert.assertEquals("1", findDeltaConfig(loader).getValue());
+
+        dao.execute(SqlBuilders.update(DefaultSystemConfig.class)
+                .setValue("value", "2")
+                .setValue("update_time", new Date(System.currentTimeMillis() + 1000))
+                .where("name", "=", "a")
+                .and("type", "=", "delta")
+                .create());
+        Assert.assertEquals(size + 1, loader.load().size());
+        Assert.assertEquals("2", findDeltaConfig(loader).getValue());
+
+        dao.execute(SqlBuilders.delete(DefaultSystemConfig.class)
+                .where("type", "=", "delta")
+                .create());
+        Assert.assertEquals(size, loader.load().size());
+        Assert.assertNull(findDeltaConfig(loader));
+    }
+
+    @Test
+    public void deltaLoadLateCommit() {
+        long now = System.currentTimeMillis();
+        dao.insert(new DefaultSystemConfig()
+                .setType("late")
+                .setName("a")
+                .setValue("1")
+                .setEnabled(true)
+                .setUpdateTime(new Date(now - 10 * 60 * 1000)), null, true);
+        dao.insert(new DefaultSystemConfig()
+                .setType("late")
+                .setName("b")
+                .setValue("1")
+                .setEnabled(true)
+                .setUpdateTime(new Date(now)), null, true);
+
+        DbConfigLoader<DefaultSystemConfig> loader = new DbConfigLoader<DefaultSystemConfig>(
+                DefaultSystemConfig.class, dao.getDataSource(), true);
+        loader.load();
+
+        // 延迟提交的修改，update_time早于已加载配置的最大更新时间，但在安全窗口内
+        dao.execute(SqlBuilders.update(DefaultSystemConfig.class)
+                .setValue("value", "2")
+                .setValue("update_time", new Date(now - 5000))
+                .where("name", "=", "a")
+                .and("type", "=", "late")
+                .create());
+        Assert.assertEquals("2", findConfig(loader, "late", "a").getValue());
+
+        dao.execute(SqlBuilders.delete(DefaultSystemConfig.class)
+                .where("type", "=", "late")
+                .create());
+    }
+
+    @Test
+    public void deltaLoadDuplicateRows() {
+        DbConfigLoader<DefaultSystemConfig> loader = new DbConfigLoader<DefaultSystemConfig>(
+                DefaultSystemConfig.class, dao.getDataSource(), true);
+        loader.setScope(CollUtil.newHashSet("duplicate"));
+        loader.load();
+
+        // 同一配置组与配置名称的多条记录均应被增量加载读取
+        for (int i = 0; i < 2; i++) {
+            dao.insert(new DefaultSystemConfig()
+                    .setType("duplicate")
+                    .setName("a")
+                    .setValue(String.valueOf(i))
+                    .setEnabled(i == 0)
+                    .setUpdateTime(new Date()), null, true);
+        }
+
+        List<DefaultSystemConfig> deltaConfigs = loader.load();
+        DbConfigLoader<DefaultSystemConfig> fullLoader = newLoader();
+        fullLoader.setScope(CollUtil.newHashSet("duplicate"));
+        Assert.assertEquals(2, deltaConfigs.size());
+        Assert.assertEquals(fullLoader.load().size(), deltaConfigs.size());
+        Assert.assertEquals(2, loader.load().size());
+
+        dao.execute(SqlBuilders.delete(DefaultSystemConfig.class)
+                .where("type", "=", "duplicate")
+                .create());
+    }
+
+    @Test
+    public void scopedLoad() {
+        dao.insert(new DefaultSystemConfig()
+                .setType("Scoped")
+                .setName("a")
+                .setValue("1")
+                .setEnabled(true), null, true);
+
+        DbConfigLoader<DefaultSystemConfig> loader = newLoader();
+        // 配置组按原值查询
+        loader.setScope(CollUtil.newHashSet("Scoped", "none"));
+        List<DefaultSystemConfig> configs = loader.load();
+        Assert.assertEquals(1, configs.size());
+        Assert.assertEquals("Scoped", configs.get(0).getType());
+        Assert.assertEquals("1", configs.get(0).getValue());
+        Assert.assertTrue(configs.get(0).getEnabled());
+
+        loader.setScope(Collections.<String>emptySet());
+        Assert.assertTrue(loader.load().isEmpty());
+
+        dao.execute(SqlBuilders.delete(DefaultSystemConfig.class)
+                .where("type", "=", "Scoped")
+                .create());
+    }
+
+    private DefaultSystemConfig findConfig(DbConfigLoader<DefaultSystemConfig> loader, String type, String name) {
+        for (DefaultSystemConfig config : loader.load()) {
+            if (type.equals(config.getType()) && name.equals(config.getName())) {
+                return config;
+            }
+        }
+
+        return null;
+    }
+
+    private DefaultSystemConfig findDeltaConfig(DbConfigLoader<DefaultSystemConfig> loader) {
+        for (DefaultSystemConfig config : loader.load()) {
+            if ("delta".equals(config.getType())) {
+                return config;
+            }
+        }
+
+        return null;
+    }
+
     private DbConfigLoader<DefaultSystemConfig> newLoader() {
         return new DbConfigLoader<DefaultSystemConfig>(DefaultSystemConfig.class, dao.getDataSource());
     }
@@ -0,0 +1,135 @@
+package org.team4u.test;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.ChangeListener;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.PullCacheConfigLoader;
+import org.team4u.config.snapshot.LocalSnapshotConfigLoader;
+import org.team4u.config.snapshot.SnapshotFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Jay.Wu
+ */
+public class LocalSnapshotConfigLoaderTest {
+
+    @Test
+    public void bootFromLocal() throws Exception {
+        File file = File.createTempFile("local-snapshot", ".bin");
+        try {
+            // 首次启动从原加载器加载并写入快照文件
+            MemoryConfigLoader delegate = new MemoryConfigLoader(
+                    CollUtil.newArrayList(newConfig("1")));
+            FileUtil.del(file);
+            LocalSnapshotConfigLoader loader = new LocalSnapshotConfigLoader(delegate, file.getPath());
+            Assert.assertFalse(loader.isLocal());
+            Assert.assertEquals("1", loader.getString("app", "a", null));
+            Assert.assertTrue(file.isFile());
+            loader.close();
+
+            // 原加载器不可用时使用快照文件，恢复后通知订阅者
+            FailingConfigLoader failingDelegate = new FailingConfigLoader(CollUtil.newArrayList(newConfig("2")));
+            loader = new LocalSnapshotConfigLoader(failingDelegate, file.getPath()).setRetryIntervalMs(50);
+            final CountDownLatch latch = new CountDownLatch(1);
+            loader.subscribe(new ChangeListener() {
+                @Override
+                public void onChange() {
+                    latch.countDown();
+                }
+            });
+
+            PullCacheConfigLoader<DefaultSystemConfig> cacheLoader =
+                    new PullCacheConfigLoader<DefaultSystemConfig>(loader, 0);
+            Assert.assertEquals("1", cacheLoader.getString("app", "a", null));
+            Assert.assertTrue(loader.isLocal());
+
+            failingDelegate.available = true;
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertFalse(loader.isLocal());
+
+            cacheLoader.refresh();
+            Assert.assertEquals("2", cacheLoader.getString("app", "a", null));
+            Assert.assertEquals("2", SnapshotFile.read(file).get(0).getValue());
+            cacheLoader.close();
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    @Test
+    public void skipUnchangedWrite() throws IOException {
+        File file = File.createTempFile("local-snapshot", ".bin");
+        try {
+            MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(newConfig("1")));
+            FileUtil.del(file);
+            LocalSnapshotConfigLoader loader = new LocalSnapshotConfigLoader(delegate, file.getPath());
+            loader.load();
+            Assert.assertTrue(file.isFile());
+
+            // 配置未变化时不重写快照文件
+            Assert.assertTrue(file.setLastModified(1000));
+            loader.load();
+            Assert.assertEquals(1000, file.lastModified());
+
+            // 配置变化后重写
+            delegate.setConfigs(CollUtil.newArrayList(newConfig("2")));
+            loader.load();
+            Assert.assertNotEquals(1000, file.lastModified());
+            Assert.assertEquals("2", SnapshotFile.read(file).get(0).getValue());
+            loader.close();
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    @Test
+    public void ignoreCorruptedFile() throws IOException {
+        File file = File.createTempFile("local-snapshot", ".bin");
+        try {
+            FileUtil.writeBytes(new byte[]{1, 2, 3}, file);
+
+            LocalSnapshotConfigLoader loader = new LocalSnapshotConfigLoader(
+                    new MemoryConfigLoader(CollUtil.newArrayList(newConfig("1"))),
+                    file.getPath());
+            Assert.assertFalse(loader.isLocal());
+            Assert.assertEquals("1", loader.getString("app", "a", null));
+            Assert.assertEquals("1", SnapshotFile.read(file).get(0).getValue());
+            loader.close();
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    private DefaultSystemConfig newConfig(String value) {
+        return new DefaultSystemConfig().setType("app").setName("a").setValue(value).setEnabled(true);
+    }
+
+    /**
+     * 可模拟不可用的配置加载器
+     */
+    private static class FailingConfigLoader extends MemoryConfigLoader {
+
+        private volatile boolean available;
+
+        FailingConfigLoader(List<DefaultSystemConfig> configs) {
+            super(configs);
+        }
+
+        @Override
+        public List<DefaultSystemConfig> load() {
+            if (!available) {
+                throw new IllegalStateException("unavailable");
+            }
+
+            return super.load();
+        }
+    }
+}
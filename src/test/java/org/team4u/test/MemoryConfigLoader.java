@@ -0,0 +1,52 @@
+package org.team4u.test;
+
+import org.team4u.config.AbstractConfigLoader;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.FingerprintConfigLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内存配置加载器，以版本号作为配置指纹
+ *
+ * @author Jay.Wu
+ */
+public class MemoryConfigLoader extends AbstractConfigLoader<DefaultSystemConfig>
+        implements FingerprintConfigLoader<DefaultSystemConfig> {
+
+    private volatile List<DefaultSystemConfig> configs;
+    private final AtomicInteger version = new AtomicInteger();
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    public MemoryConfigLoader(List<DefaultSystemConfig> configs) {
+        this.configs = configs;
+    }
+
+    @Override
+    public List<DefaultSystemConfig> load() {
+        loadCount.incrementAndGet();
+        return new ArrayList<DefaultSystemConfig>(configs);
+    }
+
+    @Override
+    public String fingerprint() {
+        return String.valueOf(version.get());
+    }
+
+    public MemoryConfigLoader setConfigs(List<DefaultSystemConfig> configs) {
+        this.configs = configs;
+        version.incrementAndGet();
+        return this;
+    }
+
+    public int getLoadCount() {
+        return loadCount.get();
+    }
+
+    @Override
+    public void close() {
+        // Ignore
+    }
+}
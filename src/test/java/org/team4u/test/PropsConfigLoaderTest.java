@@ -9,9 +9,14 @@ import org.team4u.config.DefaultSystemConfig;
 import org.team4u.config.PullCacheConfigLoader;
 import org.team4u.config.Watcher;
 import org.team4u.config.props.PropsConfigLoader;
+import org.team4u.config.props.PropsFileWatcher;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Jay.Wu
@@ -70,6 +75,122 @@ public class PropsConfigLoaderTest extends ConfigLoaderTest {
         oldProps.store(FileUtil.getOutputStream(CONFIG_PATH), "");
     }
 
+    @Test
+    public void subscribeReload() throws IOException {
+        File file = File.createTempFile("props-watcher", ".properties");
+        FileUtil.writeString("app.a=1\napp.b=0\n", file, "ISO-8859-1");
+
+        // 关闭定时刷新，仅依赖文件变化通知
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(
+                new PropsConfigLoader(file.getAbsolutePath()).setQuietPeriodMs(100), 0);
+
+        try {
+            Config c = loader.to(Config.class);
+            Assert.assertEquals(Integer.valueOf(1), c.getA());
+
+            FileUtil.writeString("app.a=2\napp.b=0\n", file, "ISO-8859-1");
+            FileUtil.appendString("app.g=g\n", file, "ISO-8859-1");
+
+            for (int i = 0; i < 50 && !"g".equals(c.getG()); i++) {
+                ThreadUtil.safeSleep(100);
+            }
+
+            Assert.assertEquals(Integer.valueOf(2), c.getA());
+            Assert.assertEquals("g", c.getG());
+        } finally {
+            loader.close();
+            FileUtil.del(file);
+        }
+    }
+
+    @Test
+    public void sharedWatchThread() throws IOException {
+        List<File> files = new ArrayList<File>();
+        List<PropsFileWatcher> watchers = new ArrayList<PropsFileWatcher>();
+        final AtomicInteger[] notifications = new AtomicInteger[10];
+        try {
+            for (int i = 0; i < notifications.length; i++) {
+                final AtomicInteger notification = new AtomicInteger();
+                notifications[i] = notification;
+                File file = File.createTempFile("props-shared-watcher", ".properties");
+                files.add(file);
+                watchers.add(new PropsFileWatcher(file.getAbsolutePath(), 50, new Runnable() {
+                    @Override
+                    public void run() {
+                        notification.incrementAndGet();
+                    }
+                }));
+            }
+
+            // 所有文件共用一个监听线程
+            int watchThreads = 0;
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().equals("simple-config-props-watcher")) {
+                    watchThreads++;
+                }
+            }
+            Assert.assertEquals(1, watchThreads);
+
+            // 仅通知发生变化的文件的监听器
+            FileUtil.writeString("app.a=1\n", files.get(3), "ISO-8859-1");
+            Assert.assertTrue(TestUtil.waitUntil(new TestUtil.Condition() {
+                @Override
+                public boolean isMet() {
+                    return notifications[3].get() > 0;
+                }
+            }, 10000));
+            Assert.assertEquals(0, notifications[2].get());
+        } finally {
+            for (PropsFileWatcher watcher : watchers) {
+                watcher.close();
+            }
+            for (File file : files) {
+                FileUtil.del(file);
+            }
+        }
+    }
+
+    @Test
+    public void reuseUnchangedConfigs() throws IOException {
+        File file = File.createTempFile("props-reuse", ".properties");
+        try {
+            FileUtil.writeString("app.a=1\napp.b=2\n", file, "ISO-8859-1");
+            PropsConfigLoader loader = new PropsConfigLoader(file.getAbsolutePath());
+            List<DefaultSystemConfig> oldConfigs = loader.load();
+
+            FileUtil.writeString("app.a=1\napp.b=3\n", file, "ISO-8859-1");
+            List<DefaultSystemConfig> newConfigs = loader.load();
+
+            Assert.assertSame(oldConfigs.get(0), newConfigs.get(0));
+            Assert.assertNotSame(oldConfigs.get(1), newConfigs.get(1));
+            Assert.assertEquals("3", newConfigs.get(1).getValue());
+            // 配置组在多个配置间共享
+            Assert.assertSame(newConfigs.get(0).getType(), newConfigs.get(1).getType());
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    @Test
+    public void sameSizeEditFingerprint() throws IOException {
+        File file = File.createTempFile("props-fingerprint", ".properties");
+        try {
+            FileUtil.writeString("app.a=1\n", file, "ISO-8859-1");
+            long lastModified = file.lastModified();
+            PropsConfigLoader loader = new PropsConfigLoader(file.getAbsolutePath());
+            String fingerprint = loader.fingerprint();
+
+            // 修改时间精度内的等长修改
+            FileUtil.writeString("app.a=2\n", file, "ISO-8859-1");
+            Assert.assertTrue(file.setLastModified(lastModified));
+
+            Assert.assertNotEquals(fingerprint, loader.fingerprint());
+            Assert.assertEquals("2", loader.load().get(0).getValue());
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
     private PropsConfigLoader newLoader() {
         return new PropsConfigLoader(CONFIG_PATH);
     }
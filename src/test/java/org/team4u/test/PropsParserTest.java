@@ -0,0 +1,110 @@
+package org.team4u.test;
+
+import cn.hutool.core.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.props.PropsParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * @author Jay.Wu
+ */
+public class PropsParserTest {
+
+    private static final String CONTENT = "# comment\n" +
+            "! another comment \\\n" +
+            "app.a=1\n" +
+            "  app.b = 2  \n" +
+            "app.c:3\n" +
+            "app.d 4\n" +
+            "app.e\t=\t5\n" +
+            "app.f=\n" +
+            "app.g\n" +
+            "app.h=line1\\\n" +
+            "       line2\\\r\n" +
+            "\tline3\r\n" +
+            "app.i=\\u4e2d\\u6587\\t\\n\\r\\f\\x\n" +
+            "app\\ key.j\\=k=v=w\n" +
+            "app.l=a\\\\\n" +
+            "app.m=#not comment\n" +
+            "\r\n" +
+            "  \n" +
+            "app.a=dup\n" +
+            ".empty=2\n" +
+            "app.n=\\\n" +
+            "\n" +
+            "app.o=end\\";
+
+    @Test
+    public void sameAsProperties() throws IOException {
+        Properties expected = new Properties();
+        expected.load(new StringReader(CONTENT));
+
+        Assert.assertEquals(expected, parse(new PropsParser(), CONTENT));
+    }
+
+    @Test
+    public void parseFile() throws IOException {
+        File file = File.createTempFile("props-parser", ".properties");
+        try {
+            Charset utf8 = Charset.forName("UTF-8");
+            FileUtil.writeString(CONTENT + "\napp.z=中文", file, utf8);
+
+            Properties expected = new Properties();
+            expected.load(new StringReader(FileUtil.readString(file, utf8)));
+            Assert.assertEquals(expected, parse(new PropsParser(utf8), file));
+
+            // 默认ISO-8859-1编码与Properties.load(InputStream)一致
+            expected = new Properties();
+            expected.load(FileUtil.getInputStream(file));
+            Assert.assertEquals(expected, parse(new PropsParser(), file));
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedUnicode() {
+        parse(new PropsParser(), "app.a=\\u12");
+    }
+
+    @Test
+    public void keyWithoutType() {
+        // 无点号的键无法确定配置组，与Properties加载时一致地快速失败
+        try {
+            parse(new PropsParser(), "app.a=1\nnodot=1\n");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("key=nodot"));
+        }
+    }
+
+    private Map<Object, Object> parse(PropsParser parser, CharSequence content) {
+        Collector collector = new Collector();
+        parser.parse(content, collector);
+        return collector.result;
+    }
+
+    private Map<Object, Object> parse(PropsParser parser, File file) throws IOException {
+        Collector collector = new Collector();
+        parser.parse(file, collector);
+        return collector.result;
+    }
+
+    private static class Collector implements PropsParser.Handler {
+
+        private final Map<Object, Object> result = new HashMap<Object, Object>();
+
+        @Override
+        public void onConfig(String type, String name, String value) {
+            result.put(type + "." + name, value);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package org.team4u.test;
+
+import cn.hutool.core.collection.CollUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.ConfigChangeSet;
+import org.team4u.config.ConfigHolder;
+import org.team4u.config.ConfigurationProperties;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.PullCacheConfigLoader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.team4u.test.TestUtil.newConfig;
+
+/**
+ * @author Jay.Wu
+ */
+public class PullCacheConfigLoaderTest {
+
+    @Test
+    public void refreshChangedTypesOnly() throws IOException {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "a", "1"),
+                newConfig("db", "host", "localhost")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+
+        AppConfig app = loader.to(AppConfig.class);
+        DbConfig db = loader.to(DbConfig.class);
+        Assert.assertEquals(Integer.valueOf(1), app.getA());
+        Assert.assertEquals("localhost", db.getHost());
+
+        // 未变化的配置组不应被重新绑定
+        db.setHost("changed");
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "a", "2"),
+                newConfig("db", "host", "localhost")
+        ));
+        loader.refresh();
+
+        Assert.assertEquals(Integer.valueOf(2), app.getA());
+        Assert.assertEquals("changed", db.getHost());
+
+        loader.close();
+    }
+
+    @Test
+    public void skipLoadWhenFingerprintUnchanged() throws IOException {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "a", "1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+
+        AppConfig app = loader.to(AppConfig.class);
+        loader.refresh();
+        loader.refresh();
+        Assert.assertEquals(1, delegate.getLoadCount());
+
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "a", "2")
+        ));
+        loader.refresh();
+        Assert.assertEquals(2, delegate.getLoadCount());
+        Assert.assertEquals(Integer.valueOf(2), app.getA());
+
+        loader.close();
+    }
+
+    @Test
+    public void reuseUnchangedConfigs() throws IOException {
+        DefaultSystemConfig a = newConfig("app", "a", "1");
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.<DefaultSystemConfig>newArrayList(a));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+        loader.refresh();
+
+        // 重新加载的配置内容未变化时保留原配置对象
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "a", "1"),
+                newConfig("app", "b", "2")
+        ));
+        loader.refresh();
+
+        Assert.assertSame(a, loader.load().get(0));
+        Assert.assertEquals("2", loader.load().get(1).getValue());
+
+        loader.close();
+    }
+
+    @Test
+    public void toHolder() throws IOException {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("db", "host", "h1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+
+        ConfigHolder<DbConfig> holder = loader.toHolder(DbConfig.class);
+        Assert.assertSame(holder, loader.toHolder(DbConfig.class));
+        DbConfig oldConfig = holder.get();
+        Assert.assertEquals("h1", oldConfig.getHost());
+
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("db", "host", "h2")
+        ));
+        loader.refresh();
+
+        // 配置变化时整体替换配置对象，旧配置对象保持不变
+        Assert.assertEquals("h2", holder.get().getHost());
+        Assert.assertEquals("h1", oldConfig.getHost());
+
+        loader.close();
+    }
+
+    @Test
+    public void cacheHitReturnsSameProxy() throws IOException {
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(
+                new MemoryConfigLoader(CollUtil.newArrayList(newConfig("app", "a", "1"))), 0);
+        try {
+            // 缓存命中的内存分配由PullCacheHitBenchmark使用-prof gc验证
+            AppConfig app = loader.to(AppConfig.class);
+            for (int i = 0; i < 1000; i++) {
+                Assert.assertSame(app, loader.to(AppConfig.class));
+            }
+        } finally {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void concurrentTo() throws Exception {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "a", "1")
+        ));
+        final PullCacheConfigLoader<DefaultSystemConfig> loader =
+                new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<AppConfig>> futures = new ArrayList<Future<AppConfig>>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(new Callable<AppConfig>() {
+                @Override
+                public AppConfig call() throws Exception {
+                    start.await();
+                    return loader.to(AppConfig.class);
+                }
+            }));
+        }
+        start.countDown();
+
+        AppConfig first = futures.get(0).get();
+        for (Future<AppConfig> future : futures) {
+            Assert.assertSame(first, future.get());
+        }
+
+        executor.shutdown();
+        loader.close();
+    }
+
+    @Test
+    public void subscribe() throws IOException {
+        SubscribableMemoryConfigLoader delegate = new SubscribableMemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "a", "1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+        Assert.assertEquals(1, delegate.getListeners().size());
+
+        final AppConfig app = loader.to(AppConfig.class);
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "a", "2")
+        ));
+        delegate.fireChange();
+
+        Assert.assertTrue(TestUtil.waitUntil(new TestUtil.Condition() {
+            @Override
+            public boolean isMet() {
+                return Integer.valueOf(2).equals(app.getA());
+            }
+        }, 5000));
+
+        loader.close();
+        Assert.assertTrue(delegate.getListeners().isEmpty());
+    }
+
+    @Test
+    public void sharedRefreshThreads() throws IOException {
+        final List<MemoryConfigLoader> delegates = new ArrayList<MemoryConfigLoader>();
+        List<PullCacheConfigLoader<DefaultSystemConfig>> loaders = new ArrayList<PullCacheConfigLoader<DefaultSystemConfig>>();
+        for (int i = 0; i < 100; i++) {
+            MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(newConfig("app", "a", "1")));
+            delegates.add(delegate);
+            loaders.add(new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 10));
+        }
+
+        // 等待所有加载器至少刷新一次
+        Assert.assertTrue(TestUtil.waitUntil(new TestUtil.Condition() {
+            @Override
+            public boolean isMet() {
+                for (MemoryConfigLoader delegate : delegates) {
+                    if (delegate.getLoadCount() == 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }, 5000));
+
+        // 所有加载器共用调度器线程
+        int refreshThreads = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("simple-config-refresh-")) {
+                refreshThreads++;
+            }
+        }
+        Assert.assertTrue("refreshThreads=" + refreshThreads, refreshThreads > 0 && refreshThreads <= 2);
+
+        for (PullCacheConfigLoader<DefaultSystemConfig> loader : loaders) {
+            loader.close();
+        }
+    }
+
+    @Test
+    public void lazyInterface() throws IOException {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("json", "e", "{'name':'a'}"),
+                newConfig("json", "list", "1,2"),
+                newConfig("json", "enabled", "true")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0);
+
+        LazyJsonConfig config = loader.to(LazyJsonConfig.class);
+        Assert.assertSame(config, loader.to(LazyJsonConfig.class));
+        Assert.assertEquals("a", config.getE().getName());
+        Assert.assertEquals(CollUtil.newArrayList(1, 2), config.getList());
+        Assert.assertTrue(config.isEnabled());
+        // 不存在的配置返回默认值
+        Assert.assertEquals(0, config.version());
+
+        // 同一快照内仅转换一次
+        Assert.assertSame(config.getE(), config.getE());
+        Assert.assertSame(config.getList(), config.getList());
+
+        // 持有者模式固定为创建时的快照
+        ConfigHolder<LazyJsonConfig> holder = loader.toHolder(LazyJsonConfig.class);
+        LazyJsonConfig oldConfig = holder.get();
+
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("json", "e", "{'name':'b'}"),
+                newConfig("json", "version", "2")
+        ));
+        loader.refresh();
+
+        Assert.assertEquals("b", config.getE().getName());
+        Assert.assertNull(config.getList());
+        Assert.assertFalse(config.isEnabled());
+        Assert.assertEquals(2, config.version());
+
+        Assert.assertEquals("a", oldConfig.getE().getName());
+        Assert.assertEquals("b", holder.get().getE().getName());
+        Assert.assertEquals(2, holder.get().version());
+
+        loader.close();
+    }
+
+    @Test
+    public void scopedLoading() throws Exception {
+        ScopedMemoryConfigLoader delegate = new ScopedMemoryConfigLoader(CollUtil.newArrayList(
+                newConfig("app", "a", "1"),
+                newConfig("db", "host", "h1"),
+                newConfig("other", "x", "1")
+        ));
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(delegate, 0)
+                .setScopedLoading(true);
+        CollectingListener listener = new CollectingListener();
+        loader.addListener(listener);
+
+        // 仅加载已绑定的配置组
+        AppConfig app = loader.to(AppConfig.class);
+        Assert.assertEquals(Integer.valueOf(1), app.getA());
+        Assert.assertEquals(1, loader.load().size());
+
+        // 使用新的配置组时扩大加载范围，新纳入范围的配置不作为新增配置通知
+        Assert.assertEquals("h1", loader.getString("db", "host", null));
+        Assert.assertEquals(2, loader.load().size());
+        Assert.assertTrue(listener.isEmpty());
+
+        // 范围内的变化照常通知，范围外的变化不加载
+        delegate.setConfigs(CollUtil.newArrayList(
+                newConfig("app", "a", "2"),
+                newConfig("db", "host", "h1"),
+                newConfig("other", "x", "2")
+        ));
+        loader.refresh();
+        ConfigChangeSet<DefaultSystemConfig> changeSet = listener.poll();
+        Assert.assertEquals(1, changeSet.getModifiedConfigs().size());
+        Assert.assertEquals(Integer.valueOf(2), app.getA());
+        Assert.assertEquals(2, loader.load().size());
+
+        // 配置组忽略大小写，不同大小写不重复扩大范围
+        Assert.assertEquals("h1", loader.getString("DB", "host", null));
+        loader.addListener("App", new CollectingListener());
+        Assert.assertEquals(CollUtil.newHashSet("app", "db"), delegate.getScope());
+
+        loader.close();
+    }
+
+    @ConfigurationProperties("app")
+    public static class AppConfig {
+
+        private Integer a;
+
+        public Integer getA() {
+            return a;
+        }
+
+        public AppConfig setA(Integer a) {
+            this.a = a;
+            return this;
+        }
+    }
+
+    @ConfigurationProperties("json")
+    public static class JsonConfig {
+
+        private ConfigLoaderTest.Config.E e;
+
+        private List<Integer> list;
+
+        private Integer version;
+
+        public ConfigLoaderTest.Config.E getE() {
+            return e;
+        }
+
+        public JsonConfig setE(ConfigLoaderTest.Config.E e) {
+            this.e = e;
+            return this;
+        }
+
+        public List<Integer> getList() {
+            return list;
+        }
+
+        public JsonConfig setList(List<Integer> list) {
+            this.list = list;
+            return this;
+        }
+
+        public Integer getVersion() {
+            return version;
+        }
+
+        public JsonConfig setVersion(Integer version) {
+            this.version = version;
+            return this;
+        }
+    }
+
+    @ConfigurationProperties("json")
+    public interface LazyJsonConfig {
+
+        ConfigLoaderTest.Config.E getE();
+
+        List<Integer> getList();
+
+        boolean isEnabled();
+
+        int version();
+    }
+
+    @ConfigurationProperties("db")
+    public static class DbConfig {
+
+        private String host;
+
+        public String getHost() {
+            return host;
+        }
+
+        public DbConfig setHost(String host) {
+            this.host = host;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.team4u.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.AdaptiveRefreshPolicy;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.DefaultWatcher;
+import org.team4u.config.PullCacheConfigLoader;
+import org.team4u.config.RefreshPolicy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author Jay.Wu
+ */
+public class RefreshPolicyTest {
+
+    @Test
+    public void adaptiveInterval() {
+        AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy(1000, 200, 3000, 10000).setJitterRatio(0);
+        Assert.assertEquals(1000, policy.initialDelayMs());
+
+        // 配置变化后缩短间隔，不低于最小间隔
+        Assert.assertEquals(500, policy.nextDelayMs(RefreshPolicy.Result.CHANGED));
+        Assert.assertEquals(250, policy.nextDelayMs(RefreshPolicy.Result.CHANGED));
+        Assert.assertEquals(200, policy.nextDelayMs(RefreshPolicy.Result.CHANGED));
+
+        // 配置未变化时延长间隔，不超过最大间隔
+        Assert.assertEquals(300, policy.nextDelayMs(RefreshPolicy.Result.UNCHANGED));
+        for (int i = 0; i < 10; i++) {
+            policy.nextDelayMs(RefreshPolicy.Result.UNCHANGED);
+        }
+        Assert.assertEquals(3000, policy.nextDelayMs(RefreshPolicy.Result.UNCHANGED));
+    }
+
+    @Test
+    public void backoff() {
+        AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy(1000, 200, 3000, 10000).setJitterRatio(0);
+
+        Assert.assertEquals(2000, policy.nextDelayMs(RefreshPolicy.Result.FAILED));
+        Assert.assertEquals(4000, policy.nextDelayMs(RefreshPolicy.Result.FAILED));
+        Assert.assertEquals(8000, policy.nextDelayMs(RefreshPolicy.Result.FAILED));
+        Assert.assertEquals(10000, policy.nextDelayMs(RefreshPolicy.Result.FAILED));
+        Assert.assertEquals(10000, policy.nextDelayMs(RefreshPolicy.Result.FAILED));
+
+        // 成功后重置连续失败次数
+        Assert.assertEquals(1500, policy.nextDelayMs(RefreshPolicy.Result.UNCHANGED));
+        Assert.assertEquals(0, policy.getFailures());
+    }
+
+    @Test
+    public void backoffOnFailure() throws IOException {
+        MemoryConfigLoader delegate = new MemoryConfigLoader(new ArrayList<DefaultSystemConfig>()) {
+            @Override
+            public List<DefaultSystemConfig> load() {
+                throw new IllegalStateException("unavailable");
+            }
+        };
+        final RecordingRefreshPolicy policy = new RecordingRefreshPolicy(
+                new AdaptiveRefreshPolicy(20, 10, 80, 200).setJitterRatio(0));
+
+        PullCacheConfigLoader<DefaultSystemConfig> loader = new PullCacheConfigLoader<DefaultSystemConfig>(
+                delegate, policy, new DefaultWatcher<DefaultSystemConfig>());
+        Assert.assertTrue(TestUtil.waitUntil(new TestUtil.Condition() {
+            @Override
+            public boolean isMet() {
+                return policy.getDelays().size() >= 3;
+            }
+        }, 5000));
+        loader.close();
+
+        // 刷新失败时按连续失败次数退避
+        Assert.assertEquals(RefreshPolicy.Result.FAILED, policy.getResults().get(0));
+        Assert.assertEquals(Long.valueOf(40), policy.getDelays().get(0));
+        Assert.assertEquals(Long.valueOf(80), policy.getDelays().get(1));
+        Assert.assertEquals(Long.valueOf(160), policy.getDelays().get(2));
+    }
+
+    @Test
+    public void jitter() {
+        AdaptiveRefreshPolicy policy = new AdaptiveRefreshPolicy(1000).setJitterRatio(0.2);
+
+        boolean jittered = false;
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.initialDelayMs();
+            Assert.assertTrue(delay >= 800 && delay <= 1200);
+            jittered |= delay != 1000;
+        }
+        Assert.assertTrue(jittered);
+    }
+
+    /**
+     * 记录刷新结果与延迟时间的刷新策略
+     */
+    private static class RecordingRefreshPolicy implements RefreshPolicy {
+
+        private final RefreshPolicy delegate;
+        private final List<Result> results = new CopyOnWriteArrayList<Result>();
+        private final List<Long> delays = new CopyOnWriteArrayList<Long>();
+
+        RecordingRefreshPolicy(RefreshPolicy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long initialDelayMs() {
+            return delegate.initialDelayMs();
+        }
+
+        @Override
+        public long nextDelayMs(Result result) {
+            long delay = delegate.nextDelayMs(result);
+            results.add(result);
+            delays.add(delay);
+            return delay;
+        }
+
+        List<Result> getResults() {
+            return results;
+        }
+
+        List<Long> getDelays() {
+            return delays;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.team4u.test;
+
+import org.team4u.config.ConfigKey;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.ScopedConfigLoader;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 支持按配置组加载的内存配置加载器
+ *
+ * @author Jay.Wu
+ */
+public class ScopedMemoryConfigLoader extends MemoryConfigLoader
+        implements ScopedConfigLoader<DefaultSystemConfig> {
+
+    private volatile Set<String> scope;
+
+    public ScopedMemoryConfigLoader(List<DefaultSystemConfig> configs) {
+        super(configs);
+    }
+
+    @Override
+    public List<DefaultSystemConfig> load() {
+        List<DefaultSystemConfig> result = super.load();
+        Set<String> types = scope;
+        if (types == null) {
+            return result;
+        }
+
+        for (Iterator<DefaultSystemConfig> iterator = result.iterator(); iterator.hasNext(); ) {
+            if (!types.contains(ConfigKey.normalize(iterator.next().getType()))) {
+                iterator.remove();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setScope(Set<String> types) {
+        if (types == null) {
+            scope = null;
+            return;
+        }
+
+        Set<String> newScope = new HashSet<String>();
+        for (String type : types) {
+            newScope.add(ConfigKey.normalize(type));
+        }
+        scope = newScope;
+    }
+
+    public Set<String> getScope() {
+        return scope;
+    }
+}
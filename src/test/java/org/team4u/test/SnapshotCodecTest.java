@@ -0,0 +1,121 @@
+package org.team4u.test;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import com.alibaba.fastjson.JSON;
+import org.junit.Assert;
+import org.junit.Test;
+import org.team4u.config.ConfigSnapshot;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.SystemConfig;
+import org.team4u.config.snapshot.SnapshotCodec;
+import org.team4u.config.snapshot.SnapshotFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author Jay.Wu
+ */
+public class SnapshotCodecTest {
+
+    @Test
+    public void roundTrip() {
+        List<DefaultSystemConfig> configs = CollUtil.newArrayList(
+                new DefaultSystemConfig().setId(1L).setType("app").setName("a").setValue("中文")
+                        .setDescription("desc").setSequenceNo(2).setEnabled(true)
+                        .setCreateTime(new Date(1000)).setUpdateTime(new Date(2000)),
+                new DefaultSystemConfig().setType("app").setName("b").setEnabled(false),
+                new DefaultSystemConfig().setType("db").setName("a").setValue("")
+        );
+
+        List<DefaultSystemConfig> result = SnapshotCodec.decode(SnapshotCodec.encode(configs));
+        Assert.assertEquals(3, result.size());
+
+        DefaultSystemConfig a = result.get(0);
+        Assert.assertEquals(Long.valueOf(1), a.getId());
+        Assert.assertEquals("app", a.getType());
+        Assert.assertEquals("a", a.getName());
+        Assert.assertEquals("中文", a.getValue());
+        Assert.assertEquals("desc", a.getDescription());
+        Assert.assertEquals(2, a.getSequenceNo());
+        Assert.assertTrue(a.getEnabled());
+        Assert.assertEquals(new Date(1000), a.getCreateTime());
+        Assert.assertEquals(new Date(2000), a.getUpdateTime());
+
+        DefaultSystemConfig b = result.get(1);
+        Assert.assertNull(b.getId());
+        Assert.assertNull(b.getValue());
+        Assert.assertFalse(b.getEnabled());
+        Assert.assertNull(b.getUpdateTime());
+
+        DefaultSystemConfig c = result.get(2);
+        Assert.assertEquals("", c.getValue());
+        Assert.assertNull(c.getEnabled());
+        // 配置组与配置名称使用字符串表，解码结果共享同一实例
+        Assert.assertSame(a.getType(), b.getType());
+        Assert.assertSame(a.getName(), c.getName());
+    }
+
+    @Test
+    public void openMappedFile() throws IOException {
+        File file = File.createTempFile("snapshot-codec", ".bin");
+        try {
+            List<DefaultSystemConfig> configs = createConfigs(1000);
+            SnapshotFile.write(file, SnapshotCodec.encode(configs));
+
+            List<SystemConfig> view = SnapshotFile.map(file);
+            Assert.assertEquals(configs.size(), view.size());
+            Assert.assertSame(view.get(500), view.get(500));
+            Assert.assertEquals("value500", view.get(500).getValue());
+
+            ConfigSnapshot<SystemConfig> snapshot = new ConfigSnapshot<SystemConfig>(view);
+            Assert.assertEquals("value999", snapshot.getEnabledConfig("TYPE19", "KEY999").getValue());
+            Assert.assertNull(snapshot.getEnabledConfig("type1", "key1"));
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void corrupted() {
+        byte[] data = SnapshotCodec.encode(createConfigs(10));
+        data[data.length / 2] ^= 1;
+        SnapshotCodec.open(ByteBuffer.wrap(data));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unsupportedVersion() {
+        byte[] data = SnapshotCodec.encode(createConfigs(10));
+        data[5] = 1;
+        SnapshotCodec.decode(data);
+    }
+
+    @Test
+    public void stringTable() {
+        List<DefaultSystemConfig> configs = createConfigs(10000);
+        byte[] data = SnapshotCodec.encode(configs);
+        String json = JSON.toJSONString(configs);
+        // 字符串表去重后体积小于json
+        Assert.assertTrue("binary=" + data.length + "|json=" + json.length(), data.length < json.length());
+    }
+
+    private List<DefaultSystemConfig> createConfigs(int size) {
+        List<DefaultSystemConfig> configs = new ArrayList<DefaultSystemConfig>(size);
+        for (int i = 0; i < size; i++) {
+            configs.add(new DefaultSystemConfig()
+                    .setId((long) i)
+                    .setType("type" + (i / 50))
+                    .setName("key" + i)
+                    .setValue("value" + i)
+                    .setDescription("")
+                    .setEnabled(true)
+                    .setUpdateTime(new Date(i)));
+        }
+        return configs;
+    }
+}
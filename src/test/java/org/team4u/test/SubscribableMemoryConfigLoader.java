@@ -0,0 +1,43 @@
+package org.team4u.test;
+
+import org.team4u.config.ChangeListener;
+import org.team4u.config.DefaultSystemConfig;
+import org.team4u.config.SubscribableConfigLoader;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 支持订阅的内存配置加载器，手工触发变化通知
+ *
+ * @author Jay.Wu
+ */
+public class SubscribableMemoryConfigLoader extends MemoryConfigLoader
+        implements SubscribableConfigLoader<DefaultSystemConfig> {
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<ChangeListener>();
+
+    public SubscribableMemoryConfigLoader(List<DefaultSystemConfig> configs) {
+        super(configs);
+    }
+
+    @Override
+    public void subscribe(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void unsubscribe(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void fireChange() {
+        for (ChangeListener listener : listeners) {
+            listener.onChange();
+        }
+    }
+
+    public List<ChangeListener> getListeners() {
+        return listeners;
+    }
+}
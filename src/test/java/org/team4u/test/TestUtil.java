@@ -1,6 +1,8 @@
 package org.team4u.test;
 
+import cn.hutool.core.thread.ThreadUtil;
 import com.alibaba.druid.pool.DruidDataSource;
+import org.team4u.config.DefaultSystemConfig;
 import org.team4u.dao.core.Dao;
 import org.team4u.dao.core.SimpleDao;
 import org.team4u.sql.builder.Sql;
@@ -31,6 +33,37 @@ public class TestUtil {
         return dao;
     }
 
+    /**
+     * 创建开启的配置
+     */
+    public static DefaultSystemConfig newConfig(String type, String name, String value) {
+        return new DefaultSystemConfig().setType(type).setName(name).setValue(value).setEnabled(true);
+    }
+
+    /**
+     * 轮询等待条件满足
+     *
+     * @return 超时前条件是否满足
+     */
+    public static boolean waitUntil(Condition condition, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.isMet()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            ThreadUtil.safeSleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * 等待条件
+     */
+    public interface Condition {
+
+        boolean isMet();
+    }
+
     public static void initTables(Dao dao) {
         dao.execute(new Sql().setContent("CREATE TABLE system_config\n" +
                 "(\n" +